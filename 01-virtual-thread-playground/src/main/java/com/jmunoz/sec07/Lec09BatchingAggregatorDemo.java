@@ -0,0 +1,45 @@
+package com.jmunoz.sec07;
+
+import com.jmunoz.sec07.aggregator.BatchingAggregatorService;
+import com.jmunoz.sec07.aggregator.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+// No olvidar ejecutar 05-local-external-services (con external-services.jar también funciona, pero sin batching:
+// una petición por id).
+// Como Lec04AggregatorDemo, pero con 500 ids (una página grande del catálogo) y BatchingAggregatorService.
+// Con AggregatorService serían 1000 llamadas. Aquí son unos pocos lotes de como mucho 64 ids.
+public class Lec09BatchingAggregatorDemo {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec09BatchingAggregatorDemo.class);
+
+    static void main() throws Exception {
+        var executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jm", 1).factory());
+
+        try (var aggregator = new BatchingAggregatorService(executor)) {
+            var start = System.currentTimeMillis();
+            var futures = IntStream.rangeClosed(1, 500)
+                    .mapToObj(id -> executor.submit(() -> aggregator.getProductDto(id)))
+                    .toList();
+            var list = futures.stream()
+                    .map(Lec09BatchingAggregatorDemo::toProductDto)
+                    .toList();
+            var time = System.currentTimeMillis() - start;
+
+            log.info("list: {}", list);
+            log.info("{} products in {} ms with {} upstream calls", list.size(), time, aggregator.batches());
+        }
+    }
+
+    private static ProductDto toProductDto(Future<ProductDto> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jmunoz.sec07;
+
+import com.jmunoz.sec07.externalservice.Client;
+import com.jmunoz.sec07.scheduler.OverrunPolicy;
+import com.jmunoz.sec07.scheduler.VirtualThreadScheduler;
+import com.jmunoz.util.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+// Para probar este ejemplo, tiene que estar ejecutándose external-services.jar.
+// Como Lec07ScheduledExecutorWithVirtualThreads, pero con scheduler/VirtualThreadScheduler: no hace falta
+// delegar a mano en el executor de virtual threads, y podemos tener miles de tareas periódicas.
+public class Lec10VirtualThreadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec10VirtualThreadScheduler.class);
+
+    private static final Map<Integer, Integer> ratings = new ConcurrentHashMap<>();
+
+    static void main() {
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        var scheduler = new VirtualThreadScheduler("ratings", Duration.ofMillis(10), executor);
+
+        try (executor; scheduler) {
+            // Refrescamos el rating de cada producto cada 500 ms, pero la llamada tarda alrededor de 1 segundo.
+            // Con COALESCE nunca hay dos llamadas a la vez para el mismo producto, y en cuanto termina una
+            // se hace la siguiente. Probar también SKIP y QUEUE.
+            for (int id = 1; id <= 50; id++) {
+                var productId = id;
+                scheduler.scheduleAtFixedRate(() -> ratings.put(productId, Client.getRating(productId)),
+                        Duration.ZERO, Duration.ofMillis(500), OverrunPolicy.COALESCE);
+            }
+
+            // Un millón de timers de una sola vez, repartidos en los próximos 5 segundos.
+            for (int i = 0; i < 1_000_000; i++) {
+                scheduler.schedule(() -> {}, Duration.ofMillis(i % 5_000));
+            }
+
+            scheduler.scheduleAtFixedRate(() -> log.info("ratings: {}, metrics: {}", ratings.size(), scheduler.metrics()),
+                    Duration.ofSeconds(2), Duration.ofSeconds(2), OverrunPolicy.SKIP);
+
+            // Bloqueamos el hilo principal, como en Lec07ScheduledExecutorWithVirtualThreads.
+            CommonUtils.sleep(Duration.ofSeconds(10));
+        }
+    }
+}
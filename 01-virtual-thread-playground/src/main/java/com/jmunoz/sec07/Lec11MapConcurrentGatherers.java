@@ -0,0 +1,72 @@
+package com.jmunoz.sec07;
+
+import com.jmunoz.sec07.externalservice.Client;
+import com.jmunoz.sec07.gatherer.MapConcurrent;
+import com.jmunoz.sec07.gatherer.Result;
+import com.jmunoz.sec07.gatherer.RetryPolicy;
+import com.jmunoz.sec07.gatherer.TokenBucket;
+import com.jmunoz.util.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+// Para probar este ejemplo, tiene que estar ejecutándose external-services.jar.
+// Como Lec08MapConcurrent, pero con gatherer/MapConcurrent: límite de concurrencia y de peticiones por segundo,
+// reintentos, emisión sin orden y timeout por elemento.
+// Solo funciona para Java 24 o superior.
+public class Lec11MapConcurrentGatherers {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec11MapConcurrentGatherers.class);
+
+    static void main() {
+        rateLimited();
+        unordered();
+        withTimeout();
+    }
+
+    // Contrato: 10 llamadas concurrentes y como mucho 5 por segundo. Los 20 ids tardan unos 4 segundos.
+    // Los fallos se reintentan 3 veces antes de abortar el stream.
+    private static void rateLimited() {
+        var elapsed = CommonUtils.timer(() -> {
+            var list = IntStream.rangeClosed(1, 20)
+                    .boxed()
+                    .gather(MapConcurrent.of(10, Lec11MapConcurrentGatherers::getProductName)
+                            .rateLimit(TokenBucket.perSecond(5))
+                            .retry(RetryPolicy.of(3, Duration.ofMillis(100))))
+                    .toList();
+            log.info("size: {}", list.size());
+        });
+        log.info("rate limited: {} ms", elapsed);
+    }
+
+    // Los resultados llegan según terminan: forEach() empieza con el primero que responde.
+    private static void unordered() {
+        IntStream.rangeClosed(1, 10)
+                .boxed()
+                .gather(MapConcurrent.of(10, Lec11MapConcurrentGatherers::getProductName).unordered())
+                .forEach(product -> log.info("received {}", product));
+    }
+
+    // La llamada tarda alrededor de 1 segundo: con 500 ms todos son Result.Timeout, y las llamadas se cancelan.
+    // Probar también con 2 segundos y con ids que no existen (Result.Failure). El stream no se aborta.
+    private static void withTimeout() {
+        IntStream.rangeClosed(1, 5)
+                .boxed()
+                .gather(MapConcurrent.of(5, Lec11MapConcurrentGatherers::getProductName).timeout(Duration.ofMillis(500)))
+                .forEach(result -> {
+                    switch (result) {
+                        case Result.Success<String> success -> log.info("success: {}", success.value());
+                        case Result.Failure<String> failure -> log.info("failure: {}", failure.error().getMessage());
+                        case Result.Timeout<String> timeout -> log.info("timeout after {}", timeout.after());
+                    }
+                });
+    }
+
+    private static String getProductName(int id) {
+        var product = Client.getProduct(id);
+        log.info("{} => {}", id, product);
+        return product;
+    }
+}
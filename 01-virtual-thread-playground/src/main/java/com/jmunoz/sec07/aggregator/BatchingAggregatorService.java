@@ -0,0 +1,42 @@
+package com.jmunoz.sec07.aggregator;
+
+import com.jmunoz.sec07.batch.Batcher;
+import com.jmunoz.sec07.externalservice.BatchClient;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+// Mismo contrato que AggregatorService, pero las peticiones concurrentes de getProductDto() se agrupan:
+// en vez de una llamada de producto y una de rating por id, una llamada de productos y una de ratings por lote
+// (como mucho MAX_BATCH_SIZE ids o MAX_DELAY de espera).
+// Es AutoCloseable porque tiene los virtual threads de los Batcher.
+public class BatchingAggregatorService implements AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final Duration MAX_DELAY = Duration.ofMillis(2);
+
+    private final Batcher<Integer, String> products;
+    private final Batcher<Integer, Integer> ratings;
+
+    public BatchingAggregatorService(ExecutorService executorService) {
+        this.products = new Batcher<>("products", MAX_BATCH_SIZE, MAX_DELAY, BatchClient::getProducts, executorService);
+        this.ratings = new Batcher<>("ratings", MAX_BATCH_SIZE, MAX_DELAY, BatchClient::getRatings, executorService);
+    }
+
+    // Como en AggregatorService, pedimos el producto y el rating a la vez y esperamos los dos.
+    public ProductDto getProductDto(int id) throws Exception {
+        var product = this.products.get(id);
+        var rating = this.ratings.get(id);
+        return new ProductDto(id, product.get(), rating.get());
+    }
+
+    public long batches() {
+        return this.products.batches() + this.ratings.batches();
+    }
+
+    @Override
+    public void close() {
+        this.products.close();
+        this.ratings.close();
+    }
+}
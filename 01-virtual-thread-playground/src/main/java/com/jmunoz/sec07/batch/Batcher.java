@@ -0,0 +1,175 @@
+package com.jmunoz.sec07.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Agrupa (batching) las peticiones individuales que llegan a la vez en una sola llamada con varias claves.
+//
+//   - get(key) no llama a nadie: deja la clave pendiente y devuelve un CompletableFuture.
+//   - Un virtual thread (dispatcher) espera a que se junten maxBatchSize claves o a que pase maxDelay desde la
+//     primera clave pendiente, lo que ocurra antes, y envía el lote al loader en el executor.
+//     Mientras el lote se carga, el dispatcher ya está juntando el siguiente.
+//   - Cuando el loader responde, completamos el future de cada clave. Si falta una clave en la respuesta, su future
+//     falla con NoSuchElementException. Si falla el loader (o el executor rechaza el lote), fallan todos los del lote.
+//   - La misma clave pedida dos veces dentro de la misma ventana comparte future (solo va una vez en el lote).
+//
+// Para una página del catálogo con cientos de ids pasamos de cientos de llamadas a unas pocas.
+// maxDelay es lo que pagamos en latencia: mantenerlo pequeño (unos pocos ms).
+public class Batcher<K, V> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(Batcher.class);
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Function<List<K>, Map<K, V>> loader;
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // Protegidos por lock.
+    private final Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private long windowStart;
+    private boolean closed;
+
+    public Batcher(String name, int maxBatchSize, Duration maxDelay, Function<List<K>, Map<K, V>> loader,
+                   ExecutorService executor) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.loader = loader;
+        this.executor = executor;
+        this.dispatcher = Thread.ofVirtual().name(name + "-batcher").start(this::dispatch);
+    }
+
+    public CompletableFuture<V> get(K key) {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException(this.name + " is closed"));
+            }
+            var future = this.pending.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                this.pending.put(key, future);
+                // La primera clave abre la ventana. Si se llena el lote, no esperamos más.
+                if (this.pending.size() == 1) {
+                    this.windowStart = System.nanoTime();
+                    this.changed.signal();
+                } else if (this.pending.size() == this.maxBatchSize) {
+                    this.changed.signal();
+                }
+            }
+            return future;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long batches() {
+        return this.batches.sum();
+    }
+
+    public long keys() {
+        return this.keys.sum();
+    }
+
+    // Envía lo que quede pendiente y espera a que el dispatcher termine.
+    // No cierra el executor: es de quien lo ha creado.
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.changed.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        try {
+            this.dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch() {
+        while (true) {
+            Map<K, CompletableFuture<V>> batch;
+            this.lock.lock();
+            try {
+                while (this.pending.isEmpty() && !this.closed) {
+                    this.changed.await();
+                }
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+                while (!this.closed && this.pending.size() < this.maxBatchSize) {
+                    var remaining = this.windowStart + this.maxDelayNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    this.changed.awaitNanos(remaining);
+                }
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                log.warn("{}: dispatcher interrupted", this.name);
+                return;
+            } finally {
+                this.lock.unlock();
+            }
+            this.batches.increment();
+            this.keys.add(batch.size());
+            try {
+                this.executor.submit(() -> load(batch));
+            } catch (RejectedExecutionException e) {
+                // Executor cerrado o saturado: falla este lote, pero el dispatcher sigue atendiendo los siguientes.
+                log.warn("{}: batch of {} keys rejected", this.name, batch.size());
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    // Como mucho maxBatchSize claves. Las que sobran se quedan pendientes con la misma ventana, así que salen
+    // en el siguiente lote sin volver a esperar.
+    private Map<K, CompletableFuture<V>> takeBatch() {
+        var batch = new LinkedHashMap<K, CompletableFuture<V>>();
+        var iterator = this.pending.entrySet().iterator();
+        while (iterator.hasNext() && batch.size() < this.maxBatchSize) {
+            var entry = iterator.next();
+            batch.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private void load(Map<K, CompletableFuture<V>> batch) {
+        try {
+            var values = this.loader.apply(List.copyOf(batch.keySet()));
+            batch.forEach((key, future) -> {
+                var value = values.get(key);
+                if (value != null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(new NoSuchElementException(this.name + ": no value for " + key));
+                }
+            });
+        } catch (Exception e) {
+            log.error("error", e);
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Es una utility class que limita la concurrencia basado en un valor entero que se le pasa.
 //
@@ -27,19 +28,22 @@ public class ConcurrencyLimiter implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
 
     private final ExecutorService executor;
-    private final Semaphore semaphore;
+    private final int limit;
+    // Workers en marcha. Nunca más de `limit`.
+    private final AtomicInteger workers = new AtomicInteger();
     // Cola para gestionar el orden de ejecución correcto.
-    private final Queue<Callable<?>> queue;
+    private final Queue<Task<?>> queue;
 
     public ConcurrencyLimiter(ExecutorService executor, int limit) {
         this.executor = executor;
-        this.semaphore = new Semaphore(limit);
+        this.limit = limit;
         // Nuestra implementación de la cola TIENE QUE SER THREAD SAFE
-        this.queue = new ConcurrentLinkedDeque<>();
+        this.queue = new ConcurrentLinkedQueue<>();
     }
 
     // NO ORDENADO
     //
+    // (Esta versión usa un campo `semaphore = new Semaphore(limit)` para gestionar los permits)
     // No usamos executor service directamente.
     // Hacemos un objeto wrapper para nuestro executor service, que limitará la concurrencia para los
     // virtual threads.
@@ -65,36 +69,114 @@ public class ConcurrencyLimiter implements AutoCloseable {
 
     // ORDENADO
     //
-    // Para garantizar el orden de ejecución, en vez de dar la tarea al executor service directamente,
-    // la almacenamos en la cola (comparar con el méto-do submit() comentado de arriba)
-    public <T> Future<T> submit(Callable<T> callable) {
-        this.queue.add(callable);
-        // No decimos que tarea ejecutar. No llamamos ahora al callable.
-        return executor.submit(() -> executeTask());
+    // Primera versión: cada submit() creaba un virtual thread que se quedaba bloqueado en semaphore.acquire()
+    // y luego ejecutaba la tarea que hubiera en la cabeza de la cola:
+    //
+    //     this.queue.add(callable);
+    //     return executor.submit(() -> executeTask());   // executeTask(): acquire() + (T) queue.poll().call()
+    //
+    // Tenía dos problemas:
+    //   - 1 millón de tareas pendientes = 1 millón de virtual threads aparcados (con sus stacks) esperando un permit.
+    //   - El Future de una tarea podía recibir el resultado de OTRA tarea: el thread que consigue el permit
+    //     ejecuta la que esté en la cabeza de la cola, no la suya. Por eso hacía falta el cast (T).
+    //
+    // Ahora usamos un dispatcher:
+    //   - Cada tarea viaja en la cola junto con su propio CompletableFuture (Task). Quien la ejecute completa
+    //     ese future, así que cada future recibe siempre el resultado de su tarea.
+    //   - Como mucho existen `limit` workers. Cada worker saca tareas de la cola en orden FIFO hasta vaciarla.
+    //     Las tareas pendientes son solo objetos en la cola, no threads.
+    //   - La cola (ConcurrentLinkedQueue) es lock-free: muchos threads pueden hacer submit() a la vez sin bloquearse.
+    public <T> CompletableFuture<T> submit(Callable<T> callable) {
+        var task = new Task<>(callable);
+        this.queue.add(task);
+        startWorkerIfNeeded();
+        return task.future;
     }
 
-    // Gestión de permits usando la cola.
-    // No hay callable porque no llamamos a una tarea en concreto.
-    // Son todas las tareas que tenemos en la cola.
-    // Comparar con el méto-do wrapCallable() comentado de arriba.
-    private <T> T executeTask() {
-        try{
-            semaphore.acquire();
-            // Extraemos datos de la cola.
-            // poll() devuelve un callable, que invocamos con call().
-            // Así se ejecuta la tarea desde una cola.
-            return (T) this.queue.poll().call();
-        } catch (Exception e) {
-            log.error("error", e);
-        } finally {
-            semaphore.release();
+    // Arrancamos un worker nuevo solo si hay menos de `limit`.
+    // Usamos compareAndSet para que dos submit() a la vez no arranquen más workers de la cuenta.
+    private void startWorkerIfNeeded() {
+        while (true) {
+            var current = this.workers.get();
+            if (current >= this.limit) {
+                return;
+            }
+            if (this.workers.compareAndSet(current, current + 1)) {
+                try {
+                    this.executor.submit(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Executor cerrado: devolvemos el hueco del worker y fallan las tareas pendientes, que ya no
+                    // va a ejecutar nadie.
+                    this.workers.decrementAndGet();
+                    failPending(e);
+                }
+                return;
+            }
         }
+    }
 
-        return null;        // En caso de excepción
+    private void failPending(Exception e) {
+        Task<?> task;
+        while ((task = this.queue.poll()) != null) {
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    // El worker ejecuta tareas de la cola, en orden, hasta que se vacía.
+    // El decremento va en un finally: si se escapa un Error, el worker se va pero su hueco queda libre y el
+    // siguiente submit() arranca otro.
+    private void drain() {
+        while (true) {
+            try {
+                Task<?> task;
+                while ((task = this.queue.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                this.workers.decrementAndGet();
+            }
+            // Puede que justo entre el último poll() y el decrementAndGet() alguien haya hecho submit() y,
+            // como aún contaba con nosotros, no haya arrancado otro worker. Lo comprobamos antes de irnos.
+            if (this.queue.isEmpty() || !tryRejoin()) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryRejoin() {
+        var current = this.workers.get();
+        return current < this.limit && this.workers.compareAndSet(current, current + 1);
     }
 
     @Override
     public void close() throws Exception {
         this.executor.close();
     }
+
+    // La tarea y su future van juntos en la cola.
+    private static final class Task<T> {
+
+        private final Callable<T> callable;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        private void run() {
+            // Si han cancelado el future mientras esperaba en la cola, no ejecutamos la tarea.
+            if (this.future.isDone()) {
+                return;
+            }
+            try {
+                this.future.complete(this.callable.call());
+            } catch (Exception e) {
+                log.error("error", e);
+                this.future.completeExceptionally(e);
+            } catch (Error e) {
+                this.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package com.jmunoz.sec07.externalservice;
+
+import com.jmunoz.util.HttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Como Client, pero con varios ids por llamada (ver batch/Batcher).
+//
+// Usa los endpoints /sec01/products/{ids} y /sec01/ratings/{ids} (ids=1,2,3) del proyecto
+// 05-local-external-services. external-services.jar no los tiene: si nos devuelve 404, a partir de entonces
+// hacemos una petición por id, pero todas a la vez (sendAsync).
+//
+// Usa el mismo transporte que Client (util/HttpTransport): un solo HttpClient que reutiliza las conexiones.
+public class BatchClient {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchClient.class);
+    private static final HttpTransport.UriTemplate PRODUCTS_REQUEST = HttpTransport.template("http://localhost:7070/sec01/products/");
+    private static final HttpTransport.UriTemplate RATINGS_REQUEST = HttpTransport.template("http://localhost:7070/sec01/ratings/");
+    private static final HttpTransport.UriTemplate PRODUCT_REQUEST = HttpTransport.template("http://localhost:7070/sec01/product/");
+    private static final HttpTransport.UriTemplate RATING_REQUEST = HttpTransport.template("http://localhost:7070/sec01/rating/");
+
+    // false en cuanto vemos que el servicio no tiene los endpoints con varios ids.
+    private static volatile boolean batchSupported = true;
+
+    public static Map<Integer, String> getProducts(List<Integer> ids) {
+        return getBatch(PRODUCTS_REQUEST, PRODUCT_REQUEST, ids, Function.identity());
+    }
+
+    public static Map<Integer, Integer> getRatings(List<Integer> ids) {
+        return getBatch(RATINGS_REQUEST, RATING_REQUEST, ids, Integer::parseInt);
+    }
+
+    // Los ids que no existen no aparecen en el resultado.
+    private static <V> Map<Integer, V> getBatch(HttpTransport.UriTemplate batch, HttpTransport.UriTemplate single, List<Integer> ids,
+                                                Function<String, V> parser) {
+        if (batchSupported) {
+            var url = batch.expand(ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            log.info("calling {}", url);
+            var response = HttpTransport.send(url);
+            if (response.statusCode() == 200) {
+                return parse(response.body(), parser);
+            }
+            if (response.statusCode() != 404) {
+                throw new RuntimeException("calling " + url + ": " + response.statusCode());
+            }
+            log.warn("batch endpoint not available, sending one request per id");
+            batchSupported = false;
+        }
+
+        var responses = new HashMap<Integer, CompletableFuture<HttpResponse<String>>>();
+        for (var id : ids) {
+            responses.put(id, HttpTransport.sendAsync(single.expand(id)));
+        }
+        var result = new HashMap<Integer, V>();
+        responses.forEach((id, future) -> {
+            var response = future.join();
+            if (response.statusCode() == 200) {
+                result.put(id, parser.apply(response.body()));
+            }
+        });
+        return result;
+    }
+
+    // Una línea id=valor por id.
+    private static <V> Map<Integer, V> parse(String body, Function<String, V> parser) {
+        var result = new HashMap<Integer, V>();
+        for (var line : body.split("\n")) {
+            var separator = line.indexOf('=');
+            if (separator > 0) {
+                result.put(Integer.parseInt(line.substring(0, separator)), parser.apply(line.substring(separator + 1)));
+            }
+        }
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.jmunoz.sec07.externalservice;
 
+import com.jmunoz.util.HttpTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,28 +9,23 @@ import java.net.URI;
 public class Client {
 
     private static final Logger log = LoggerFactory.getLogger(Client.class);
-    private static final String PRODUCT_REQUEST_FORMAT = "http://localhost:7070/sec01/product/%d";
-    private static final String RATING_REQUEST_FORMAT = "http://localhost:7070/sec01/rating/%d";
+    private static final HttpTransport.UriTemplate PRODUCT_REQUEST = HttpTransport.template("http://localhost:7070/sec01/product/");
+    private static final HttpTransport.UriTemplate RATING_REQUEST = HttpTransport.template("http://localhost:7070/sec01/rating/");
 
     public static String getProduct(int id) {
-        return callExternalService(PRODUCT_REQUEST_FORMAT.formatted(id));
+        return callExternalService(PRODUCT_REQUEST.expand(id));
     }
 
     public static Integer getRating(int id) {
         return Integer.parseInt(
-                callExternalService(RATING_REQUEST_FORMAT.formatted(id))
+                callExternalService(RATING_REQUEST.expand(id))
         );
     }
 
-    private static String callExternalService(String url) {
-        log.info("calling {}", url);
-        // Esto inicia una conexión TCP con el servicio externo remoto basado en la url dada.
-        // Nos devuelve la respuesta en la variable stream (obtendremos los bytes y los convertiremos a String).
-        // En la aplicación que haremos más tarde con Spring usaremos HttpClient.
-        try(var stream = URI.create(url).toURL().openStream()) {    // stream debe estar cerrado una vez leído.
-            return new String(stream.readAllBytes());               // el tamaño de la respuesta es pequeño.
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    private static String callExternalService(URI uri) {
+        log.info("calling {}", uri);
+        // Antes: URI.create(url).toURL().openStream(), que iniciaba una conexión TCP nueva en cada llamada.
+        // Ahora usamos HttpClient (ver util/HttpTransport), que reutiliza las conexiones.
+        return HttpTransport.get(uri);
     }
 }
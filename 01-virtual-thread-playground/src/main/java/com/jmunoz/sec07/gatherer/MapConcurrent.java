@@ -0,0 +1,255 @@
+package com.jmunoz.sec07.gatherer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Gatherer;
+
+// Como Gatherers.mapConcurrent(): cada elemento se transforma en su propio virtual thread, como mucho
+// maxConcurrency a la vez. Pero además:
+//   - rateLimit(): como mucho N llamadas por segundo (TokenBucket), además del límite de concurrencia.
+//     Muchos servicios externos tienen los dos contratos.
+//   - retry(): reintentos por elemento con backoff (RetryPolicy). Cada intento consume un token del rate limit.
+//   - unordered(): emite los resultados según terminan, no en el orden de entrada. La siguiente etapa del stream
+//     empieza antes, y un elemento lento no retiene a los que van detrás.
+//   - timeout(): timeout por elemento. En vez de R emite Result<R>: si se acaba el tiempo, cancela e interrumpe
+//     la llamada y emite Result.Timeout; si falla, Result.Failure. El stream nunca se aborta.
+//     El tiempo cuenta desde que el elemento entra, incluida la espera del rate limit.
+//     Llamarlo el último: los reintentos y el rate limit ya quedan dentro del tiempo de cada elemento.
+//
+// Sin timeout(), como en mapConcurrent(), la primera excepción cancela las llamadas en curso y aborta el stream.
+//
+// Uso:
+//   ids.stream().gather(MapConcurrent.of(3, Client::getProduct).rateLimit(TokenBucket.perSecond(5)).retry(...))
+public final class MapConcurrent<T, R> implements Gatherer<T, MapConcurrent<T, R>.State, R> {
+
+    private final int maxConcurrency;
+    private final Function<? super T, ? extends R> mapper;
+    private final TokenBucket rateLimit;
+    private final RetryPolicy retry;
+    private final boolean ordered;
+    private final Duration timeout;
+    private final Supplier<? extends R> onTimeout;
+
+    private MapConcurrent(int maxConcurrency, Function<? super T, ? extends R> mapper, TokenBucket rateLimit,
+                          RetryPolicy retry, boolean ordered, Duration timeout, Supplier<? extends R> onTimeout) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be >= 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.mapper = mapper;
+        this.rateLimit = rateLimit;
+        this.retry = retry;
+        this.ordered = ordered;
+        this.timeout = timeout;
+        this.onTimeout = onTimeout;
+    }
+
+    public static <T, R> MapConcurrent<T, R> of(int maxConcurrency, Function<? super T, ? extends R> mapper) {
+        return new MapConcurrent<>(maxConcurrency, mapper, null, null, true, null, null);
+    }
+
+    public MapConcurrent<T, R> rateLimit(TokenBucket rateLimit) {
+        return new MapConcurrent<>(this.maxConcurrency, this.mapper, rateLimit, this.retry, this.ordered,
+                this.timeout, this.onTimeout);
+    }
+
+    public MapConcurrent<T, R> retry(RetryPolicy retry) {
+        return new MapConcurrent<>(this.maxConcurrency, this.mapper, this.rateLimit, retry, this.ordered,
+                this.timeout, this.onTimeout);
+    }
+
+    public MapConcurrent<T, R> unordered() {
+        return new MapConcurrent<>(this.maxConcurrency, this.mapper, this.rateLimit, this.retry, false,
+                this.timeout, this.onTimeout);
+    }
+
+    public MapConcurrent<T, Result<R>> timeout(Duration timeout) {
+        Function<T, Result<R>> mapper = element -> {
+            try {
+                return Result.success(call(element));
+            } catch (Exception e) {
+                return Result.failure(e);
+            }
+        };
+        // El rate limit y los reintentos ya van dentro de call().
+        return new MapConcurrent<>(this.maxConcurrency, mapper, null, null, this.ordered, timeout,
+                () -> Result.timeout(timeout));
+    }
+
+    @Override
+    public Supplier<State> initializer() {
+        return State::new;
+    }
+
+    @Override
+    public Integrator<State, T, R> integrator() {
+        return Integrator.of((state, element, downstream) -> state.integrate(element, downstream));
+    }
+
+    @Override
+    public BiConsumer<State, Downstream<? super R>> finisher() {
+        return State::finish;
+    }
+
+    // Lo que se ejecuta en el virtual thread de cada elemento.
+    private R call(T element) throws Exception {
+        var attempt = 1;
+        while (true) {
+            try {
+                if (this.rateLimit != null) {
+                    this.rateLimit.acquire();
+                }
+                return this.mapper.apply(element);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (this.retry == null || attempt >= this.retry.maxAttempts() || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                Thread.sleep(this.retry.backoff(attempt));
+                attempt++;
+            }
+        }
+    }
+
+    private final class Task extends FutureTask<R> {
+
+        private final BlockingQueue<Task> completed;
+        private final long deadline;
+        private boolean emitted;
+
+        private Task(T element, BlockingQueue<Task> completed) {
+            super(() -> call(element));
+            this.completed = completed;
+            this.deadline = timeout == null ? 0 : System.nanoTime() + timeout.toNanos();
+        }
+
+        // Sin orden: según termina, a la cola de terminados.
+        @Override
+        protected void done() {
+            if (this.completed != null) {
+                this.completed.offer(this);
+            }
+        }
+    }
+
+    // Un estado por stream. Solo lo usa el thread del stream (el gatherer es secuencial).
+    final class State {
+
+        // Las tareas en curso o terminadas sin emitir, en orden de entrada (que también es orden de deadline).
+        private final Deque<Task> inFlight = new ArrayDeque<>();
+        private final BlockingQueue<Task> completed = ordered ? null : new LinkedBlockingQueue<>();
+
+        private boolean integrate(T element, Downstream<? super R> downstream) {
+            if (this.inFlight.size() >= maxConcurrency && !emitNext(downstream)) {
+                return false;
+            }
+            var task = new Task(element, this.completed);
+            this.inFlight.addLast(task);
+            Thread.ofVirtual().start(task);
+            return emitReady(downstream);
+        }
+
+        private void finish(Downstream<? super R> downstream) {
+            while (!this.inFlight.isEmpty()) {
+                if (!emitNext(downstream)) {
+                    return;
+                }
+            }
+        }
+
+        // Emite lo que ya está terminado, sin esperar.
+        private boolean emitReady(Downstream<? super R> downstream) {
+            if (ordered) {
+                while (!this.inFlight.isEmpty() && this.inFlight.peekFirst().isDone()) {
+                    if (!emit(this.inFlight.peekFirst(), downstream)) {
+                        return false;
+                    }
+                }
+            } else {
+                Task task;
+                while ((task = this.completed.poll()) != null) {
+                    if (!task.emitted && !emit(task, downstream)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Espera a que haya un resultado y lo emite. Con orden, el primero de la cola. Sin orden, el primero que
+        // termine o, si antes se le acaba el tiempo, el que lleva más tiempo en curso.
+        private boolean emitNext(Downstream<? super R> downstream) {
+            if (ordered) {
+                return emit(this.inFlight.peekFirst(), downstream);
+            }
+            try {
+                Task task;
+                do {
+                    task = timeout == null
+                            ? this.completed.take()
+                            : this.completed.poll(remaining(this.inFlight.peekFirst()), TimeUnit.NANOSECONDS);
+                    if (task == null) {
+                        task = this.inFlight.peekFirst();
+                    }
+                } while (task.emitted);
+                return emit(task, downstream);
+            } catch (InterruptedException e) {
+                return abort(e);
+            }
+        }
+
+        private boolean emit(Task task, Downstream<? super R> downstream) {
+            R value;
+            try {
+                value = timeout == null ? task.get() : task.get(remaining(task), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                value = onTimeout.get();
+            } catch (ExecutionException e) {
+                return abort(e.getCause());
+            } catch (InterruptedException e) {
+                return abort(e);
+            }
+            task.emitted = true;
+            this.inFlight.remove(task);
+            if (!downstream.push(value)) {
+                cancelAll();
+                return false;
+            }
+            return true;
+        }
+
+        private long remaining(Task task) {
+            return Math.max(0, task.deadline - System.nanoTime());
+        }
+
+        private boolean abort(Throwable cause) {
+            cancelAll();
+            if (cause instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(cause);
+        }
+
+        private void cancelAll() {
+            for (var task : this.inFlight) {
+                task.cancel(true);
+            }
+            this.inFlight.clear();
+        }
+    }
+}
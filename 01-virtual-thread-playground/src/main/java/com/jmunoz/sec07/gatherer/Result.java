@@ -0,0 +1,33 @@
+package com.jmunoz.sec07.gatherer;
+
+import java.time.Duration;
+
+// Resultado de un elemento en MapConcurrent.timeout(): en vez de abortar el stream con la primera excepción,
+// cada elemento dice qué le ha pasado.
+public sealed interface Result<T> {
+
+    record Success<T>(T value) implements Result<T> {
+    }
+
+    record Failure<T>(Exception error) implements Result<T> {
+    }
+
+    record Timeout<T>(Duration after) implements Result<T> {
+    }
+
+    static <T> Result<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    static <T> Result<T> failure(Exception error) {
+        return new Failure<>(error);
+    }
+
+    static <T> Result<T> timeout(Duration after) {
+        return new Timeout<>(after);
+    }
+
+    default boolean isSuccess() {
+        return this instanceof Success<T>;
+    }
+}
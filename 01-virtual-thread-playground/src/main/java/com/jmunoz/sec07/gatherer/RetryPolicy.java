@@ -0,0 +1,33 @@
+package com.jmunoz.sec07.gatherer;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Reintentos por elemento con backoff exponencial: initialBackoff, 2 * initialBackoff, 4 * ... hasta maxBackoff.
+// Cada espera es aleatoria entre la mitad y el total (jitter), para que los elementos que fallan a la vez
+// no reintenten todos a la vez.
+// maxAttempts incluye el primer intento.
+public record RetryPolicy(int maxAttempts,
+                          Duration initialBackoff,
+                          Duration maxBackoff) {
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1");
+        }
+    }
+
+    public static RetryPolicy of(int maxAttempts, Duration initialBackoff) {
+        return new RetryPolicy(maxAttempts, initialBackoff, initialBackoff.multipliedBy(32));
+    }
+
+    // Espera antes del intento attempt + 1 (attempt empieza en 1).
+    Duration backoff(int attempt) {
+        var backoff = this.initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        if (backoff.compareTo(this.maxBackoff) > 0) {
+            backoff = this.maxBackoff;
+        }
+        var half = backoff.toNanos() / 2;
+        return Duration.ofNanos(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+}
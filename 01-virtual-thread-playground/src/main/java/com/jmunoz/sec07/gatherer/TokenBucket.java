@@ -0,0 +1,66 @@
+package com.jmunoz.sec07.gatherer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Límite de peticiones por segundo (token bucket).
+//
+// El bucket se rellena a ritmo constante (permitsPerSecond) y acumula como mucho burst tokens.
+// Cada llamada consume uno. Si no hay, acquire() reserva el siguiente y duerme hasta que llegue:
+// las reservas se atienden en orden de llegada y el lock solo se toma para hacer la cuenta, nunca mientras dormimos.
+// Con virtual threads dormir no bloquea ningún carrier thread.
+//
+// Se puede compartir entre varios streams: el contrato del servicio externo es uno, lo llame quien lo llame.
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final Lock lock = new ReentrantLock();
+    // Protegidos por lock. tokens puede ser negativo: son las reservas pendientes.
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public static TokenBucket perSecond(double permitsPerSecond) {
+        return new TokenBucket(permitsPerSecond, 1);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        this.lock.lock();
+        try {
+            var now = System.nanoTime();
+            this.tokens = Math.min(this.burst, this.tokens + (now - this.lastRefill) * this.permitsPerNano);
+            this.lastRefill = now;
+            this.tokens--;
+            waitNanos = this.tokens >= 0 ? 0 : (long) (-this.tokens / this.permitsPerNano);
+        } finally {
+            this.lock.unlock();
+        }
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(waitNanos));
+            } catch (InterruptedException e) {
+                // Devolvemos la reserva: si no, el siguiente esperaría por un token que no ha usado nadie.
+                this.lock.lock();
+                try {
+                    this.tokens = Math.min(this.burst, this.tokens + 1);
+                } finally {
+                    this.lock.unlock();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.jmunoz.sec07.scheduler;
+
+// Qué hacemos cuando toca ejecutar una tarea periódica y la ejecución anterior todavía no ha terminado.
+// Ej: refrescamos el rating cada segundo, pero el servicio externo tarda 3.
+public enum OverrunPolicy {
+    // Nos saltamos esta ejecución.
+    SKIP,
+    // Como mucho una ejecución pendiente: cuando termine la actual se ejecuta una vez más,
+    // aunque se hayan perdido varias mientras tanto.
+    COALESCE,
+    // Todas las ejecuciones perdidas quedan pendientes y se ejecutan una detrás de otra (nunca a la vez).
+    QUEUE
+}
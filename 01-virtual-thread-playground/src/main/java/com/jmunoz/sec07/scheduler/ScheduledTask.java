@@ -0,0 +1,111 @@
+package com.jmunoz.sec07.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Una tarea planificada en VirtualThreadScheduler. Sirve para cancelarla.
+//
+// Con millones de tareas planificadas cada una cuenta: es a la vez el handle que devolvemos y el nodo de la lista
+// de su posición en la rueda (next), sin objetos intermedios.
+public final class ScheduledTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTask.class);
+
+    private final Runnable task;
+    private final long periodNanos;
+    private final OverrunPolicy policy;
+    private final VirtualThreadScheduler scheduler;
+    private final AtomicBoolean done = new AtomicBoolean();
+    // 0: no se está ejecutando. n > 0: se está ejecutando y quedan n - 1 ejecuciones pendientes.
+    private final AtomicInteger runs = new AtomicInteger();
+
+    // Solo los usa el thread del scheduler (ticker).
+    long deadlineNanos;
+    long deadlineTick;
+    ScheduledTask next;
+
+    ScheduledTask(Runnable task, long deadlineNanos, long periodNanos, OverrunPolicy policy,
+                  VirtualThreadScheduler scheduler) {
+        this.task = task;
+        this.deadlineNanos = deadlineNanos;
+        this.periodNanos = periodNanos;
+        this.policy = policy;
+        this.scheduler = scheduler;
+    }
+
+    // Devuelve false si ya estaba cancelada o, si no es periódica, si ya se ha ejecutado.
+    // Una ejecución que ya ha empezado no se interrumpe, pero las pendientes (COALESCE, QUEUE) se descartan.
+    public boolean cancel() {
+        if (this.done.compareAndSet(false, true)) {
+            this.scheduler.removed();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isDone() {
+        return this.done.get();
+    }
+
+    boolean isPeriodic() {
+        return this.periodNanos > 0;
+    }
+
+    long periodNanos() {
+        return this.periodNanos;
+    }
+
+    OverrunPolicy policy() {
+        return this.policy;
+    }
+
+    // Las tareas que no son periódicas solo se ejecutan una vez: después de esto, cancel() devuelve false.
+    boolean complete() {
+        return this.done.compareAndSet(false, true);
+    }
+
+    // Llamado por el ticker cuando toca ejecutarla. La ejecución va a un virtual thread.
+    // Devuelve false si no se ejecuta por la política de solapamiento.
+    boolean fire() {
+        int previous = switch (this.policy) {
+            case SKIP -> this.runs.compareAndExchange(0, 1);
+            case COALESCE -> this.runs.getAndUpdate(r -> r == 0 ? 1 : 2);
+            case QUEUE -> this.runs.getAndIncrement();
+        };
+        if (previous == 0) {
+            if (!this.scheduler.dispatch(this::run)) {
+                // No se va a ejecutar: si no volvemos a 0, con SKIP no se ejecutaría nunca más.
+                this.runs.set(0);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Ejecutamos también las pendientes que se han ido acumulando mientras tanto.
+    // Si se escapa un Error, volvemos a 0 para que la siguiente ejecución periódica pueda arrancar.
+    private void run() {
+        var finished = false;
+        try {
+            do {
+                if (isPeriodic() && isDone()) {
+                    return;
+                }
+                try {
+                    this.task.run();
+                } catch (Exception e) {
+                    log.error("error", e);
+                }
+            } while (this.runs.decrementAndGet() > 0);
+            finished = true;
+        } finally {
+            // Cancelada o con un Error: descartamos las pendientes.
+            if (!finished) {
+                this.runs.set(0);
+            }
+        }
+    }
+}
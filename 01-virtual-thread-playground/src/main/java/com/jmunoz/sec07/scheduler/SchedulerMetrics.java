@@ -0,0 +1,21 @@
+package com.jmunoz.sec07.scheduler;
+
+import java.time.Duration;
+
+// Foto de las métricas de VirtualThreadScheduler.
+//   - scheduled: tareas planificadas (las periódicas cuentan hasta que se cancelan).
+//   - inWheel: tareas que el ticker ya ha colocado en la rueda. Las canceladas siguen contando hasta que el ticker
+//     llega a su posición y las descarta.
+//   - fired: veces que ha tocado ejecutar una tarea (se haya ejecutado o no por la política de solapamiento).
+//   - skipped, coalesced, queued: ejecuciones que coincidieron con la anterior todavía en marcha (ver OverrunPolicy).
+//   - meanLag, maxLag: retraso entre el momento planificado y el envío al virtual thread.
+//     Incluye la resolución del tick: con ticks de 10 ms, hasta 10 ms de retraso es lo esperado.
+public record SchedulerMetrics(long scheduled,
+                               int inWheel,
+                               long fired,
+                               long skipped,
+                               long coalesced,
+                               long queued,
+                               Duration meanLag,
+                               Duration maxLag) {
+}
@@ -0,0 +1,111 @@
+package com.jmunoz.sec07.scheduler;
+
+import java.util.function.Consumer;
+
+// Rueda de tiempo jerárquica (hierarchical timing wheel). No es thread-safe: solo la usa el ticker.
+//
+// Un ScheduledExecutorService guarda las tareas en un heap (DelayQueue): planificar o cancelar es O(log n) y todo
+// pasa por un único lock. Con millones de timers se nota.
+// Aquí el tiempo avanza en ticks y cada nivel es un array de SLOTS posiciones, cada una con la lista de las tareas
+// que vencen en ella:
+//   - Nivel 0: una posición por tick (256 ticks).
+//   - Nivel 1: una posición por cada 256 ticks (65.536 ticks).
+//   - Nivel 2 y 3: igual, multiplicando por 256 cada vez. Con ticks de 1 ms, el nivel 3 llega a ~49 días.
+// Planificar es O(1): calcular la posición y añadir la tarea al principio de su lista.
+// Cuando el tiempo llega a una posición de un nivel superior, sus tareas se recolocan en los niveles inferiores
+// (cascading). Cada tarea baja como mucho LEVELS - 1 veces.
+final class TimingWheel {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final ScheduledTask[][] slots = new ScheduledTask[LEVELS][SLOTS];
+    private long tick;
+    private int size;
+
+    TimingWheel(long tick) {
+        this.tick = tick;
+    }
+
+    long tick() {
+        return this.tick;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    // Devuelve false si ya ha vencido (deadlineTick <= tick actual): hay que ejecutarla ya.
+    boolean add(ScheduledTask task) {
+        var deadline = task.deadlineTick;
+        if (deadline <= this.tick) {
+            return false;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            var shift = level * BITS;
+            // Cabe en este nivel si está a menos de una vuelta de la posición actual del nivel.
+            if ((deadline >>> shift) - (this.tick >>> shift) < SLOTS) {
+                push(level, (int) ((deadline >>> shift) & MASK), task);
+                return true;
+            }
+        }
+        // Más lejos de lo que cubren los niveles: la última posición del último nivel.
+        // Cuando llegue ahí se vuelve a recolocar.
+        var shift = (LEVELS - 1) * BITS;
+        push(LEVELS - 1, (int) (((this.tick >>> shift) + SLOTS - 1) & MASK), task);
+        return true;
+    }
+
+    // Avanza un tick y pasa a expired las tareas que vencen en él (canceladas incluidas, las descarta quien llama).
+    void advance(Consumer<ScheduledTask> expired) {
+        this.tick++;
+        // Primero recolocamos los niveles superiores cuyo inicio de posición coincide con este tick.
+        for (int level = 1; level < LEVELS; level++) {
+            var shift = level * BITS;
+            if ((this.tick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            var task = take(level, (int) ((this.tick >>> shift) & MASK));
+            while (task != null) {
+                var next = task.next;
+                task.next = null;
+                if (!task.isDone() && !add(task)) {
+                    expired.accept(task);
+                }
+                task = next;
+            }
+        }
+        var task = take(0, (int) (this.tick & MASK));
+        while (task != null) {
+            var next = task.next;
+            task.next = null;
+            expired.accept(task);
+            task = next;
+        }
+    }
+
+    // Sin tareas no hace falta recorrer los ticks uno a uno.
+    void skipTo(long tick) {
+        if (this.size == 0 && tick > this.tick) {
+            this.tick = tick;
+        }
+    }
+
+    private void push(int level, int slot, ScheduledTask task) {
+        task.next = this.slots[level][slot];
+        this.slots[level][slot] = task;
+        this.size++;
+    }
+
+    // Saca la lista completa de una posición.
+    private ScheduledTask take(int level, int slot) {
+        var head = this.slots[level][slot];
+        this.slots[level][slot] = null;
+        for (var task = head; task != null; task = task.next) {
+            this.size--;
+        }
+        return head;
+    }
+}
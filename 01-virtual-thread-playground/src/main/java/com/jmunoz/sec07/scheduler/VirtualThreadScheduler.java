@@ -0,0 +1,211 @@
+package com.jmunoz.sec07.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Planificador de tareas (una vez o periódicas) que ejecuta cada tarea en un virtual thread.
+//
+// Es la idea de Lec07ScheduledExecutorWithVirtualThreads (un thread que solo planifica y delega la ejecución en
+// virtual threads), pero preparado para millones de timers:
+//   - Las tareas se guardan en una rueda de tiempo jerárquica (ver TimingWheel) en vez de en un heap.
+//   - schedule() no toma ningún lock: deja la tarea en una cola lock-free y el ticker la coloca en la rueda.
+//   - Un solo thread (ticker) avanza la rueda cada tick y envía las tareas que vencen al executor.
+//     Es un platform thread porque solo hace eso, y así no compite con los virtual threads por los carriers.
+//     Si no hay ninguna tarea, se aparca hasta que llegue una.
+//   - Las tareas periódicas son a ritmo fijo (scheduleAtFixedRate): el siguiente vencimiento se calcula desde el
+//     anterior, no desde que termina la ejecución. Si la anterior sigue ejecutándose, se aplica la OverrunPolicy.
+//   - metrics(): retraso (lag) entre el momento planificado y el envío, y cuántas ejecuciones se han solapado.
+//
+// La resolución es la del tick: una tarea se ejecuta como pronto en su momento y como tarde un tick después.
+public class VirtualThreadScheduler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadScheduler.class);
+
+    private final ExecutorService executor;
+    private final long tickNanos;
+    private final long start;
+    private final Thread ticker;
+    private final Queue<ScheduledTask> added = new ConcurrentLinkedQueue<>();
+    private volatile boolean parked;
+    // Lo publica el ticker en cada vuelta (la rueda solo la puede leer él).
+    private volatile int inWheel;
+    private volatile boolean closed;
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder totalLagNanos = new LongAdder();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+
+    // Solo la usa el ticker.
+    private final TimingWheel wheel;
+
+    public VirtualThreadScheduler(String name, Duration tick, ExecutorService executor) {
+        if (tick.toNanos() <= 0) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        this.executor = executor;
+        this.tickNanos = tick.toNanos();
+        this.start = System.nanoTime();
+        this.wheel = new TimingWheel(0);
+        this.ticker = Thread.ofPlatform().daemon().name(name + "-ticker").start(this::tick);
+    }
+
+    public ScheduledTask schedule(Runnable task, Duration delay) {
+        return add(new ScheduledTask(task, elapsed() + delay.toNanos(), 0, OverrunPolicy.SKIP, this));
+    }
+
+    public ScheduledTask scheduleAtFixedRate(Runnable task, Duration initialDelay, Duration period,
+                                             OverrunPolicy policy) {
+        if (period.toNanos() < this.tickNanos) {
+            throw new IllegalArgumentException("period must be at least one tick: " + period);
+        }
+        return add(new ScheduledTask(task, elapsed() + initialDelay.toNanos(), period.toNanos(), policy, this));
+    }
+
+    public SchedulerMetrics metrics() {
+        var fired = this.fired.sum();
+        return new SchedulerMetrics(
+                this.scheduled.get(),
+                this.inWheel,
+                fired,
+                this.skipped.sum(),
+                this.coalesced.sum(),
+                this.queued.sum(),
+                Duration.ofNanos(fired == 0 ? 0 : this.totalLagNanos.sum() / fired),
+                Duration.ofNanos(this.maxLagNanos.get()));
+    }
+
+    // Las tareas pendientes se descartan. El executor es de quien lo ha creado: no lo cerramos.
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.ticker);
+        try {
+            this.ticker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void removed() {
+        this.scheduled.decrementAndGet();
+    }
+
+    // Devuelve false si el executor la rechaza.
+    boolean dispatch(Runnable run) {
+        try {
+            this.executor.execute(run);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("executor rejected scheduled task");
+            return false;
+        }
+    }
+
+    private ScheduledTask add(ScheduledTask task) {
+        if (this.closed) {
+            throw new IllegalStateException("scheduler is closed");
+        }
+        this.scheduled.incrementAndGet();
+        this.added.offer(task);
+        if (this.parked) {
+            LockSupport.unpark(this.ticker);
+        }
+        return task;
+    }
+
+    private void tick() {
+        while (!this.closed) {
+            var now = elapsed() / this.tickNanos;
+            this.wheel.skipTo(now);
+            drainAdded();
+            while (this.wheel.tick() < now) {
+                this.wheel.advance(this::expired);
+            }
+            this.inWheel = this.wheel.size();
+            if (this.wheel.size() == 0) {
+                // Nos aparcamos. Volvemos a mirar la cola después de marcar parked para no perder un unpark.
+                this.parked = true;
+                if (this.added.isEmpty() && !this.closed) {
+                    LockSupport.park(this);
+                }
+                this.parked = false;
+            } else {
+                LockSupport.parkNanos(this, (now + 1) * this.tickNanos - elapsed());
+            }
+        }
+    }
+
+    private void drainAdded() {
+        ScheduledTask task;
+        while ((task = this.added.poll()) != null) {
+            if (task.isDone()) {
+                continue;
+            }
+            // Redondeamos hacia arriba: nunca antes de su momento.
+            task.deadlineTick = (task.deadlineNanos + this.tickNanos - 1) / this.tickNanos;
+            if (!this.wheel.add(task)) {
+                expired(task);
+            }
+        }
+    }
+
+    private void expired(ScheduledTask task) {
+        if (task.isDone()) {
+            return;
+        }
+        if (task.isPeriodic()) {
+            fire(task);
+            reschedule(task);
+        } else if (task.complete()) {
+            this.scheduled.decrementAndGet();
+            fire(task);
+        }
+    }
+
+    private void fire(ScheduledTask task) {
+        var lag = elapsed() - task.deadlineNanos;
+        this.fired.increment();
+        this.totalLagNanos.add(lag);
+        this.maxLagNanos.accumulate(lag);
+        if (!task.fire()) {
+            switch (task.policy()) {
+                case SKIP -> this.skipped.increment();
+                case COALESCE -> this.coalesced.increment();
+                case QUEUE -> this.queued.increment();
+            }
+        }
+    }
+
+    // Siguiente vencimiento a ritmo fijo. Si el ticker se ha retrasado más de un periodo, no recuperamos las
+    // ejecuciones perdidas de golpe: saltamos al siguiente vencimiento futuro (el retraso se ve en el lag).
+    private void reschedule(ScheduledTask task) {
+        var period = task.periodNanos();
+        var next = task.deadlineNanos + period;
+        var now = elapsed();
+        if (next <= now) {
+            next += ((now - next) / period + 1) * period;
+        }
+        task.deadlineNanos = next;
+        // next es futuro, así que siempre queda por delante del tick actual de la rueda.
+        task.deadlineTick = (next + this.tickNanos - 1) / this.tickNanos;
+        this.wheel.add(task);
+    }
+
+    private long elapsed() {
+        return System.nanoTime() - this.start;
+    }
+}
@@ -0,0 +1,36 @@
+package com.jmunoz.sec08;
+
+import com.jmunoz.sec08.aggregator.BatchingAggregatorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+// No olvidar ejecutar 05-local-external-services (con external-services.jar también funciona, pero sin batching).
+// Como sec07/Lec09BatchingAggregatorDemo, pero con CompletableFuture: pedimos 500 ids sin crear un thread por id
+// y esperamos a todos con allOf() (ver Lec06AllOf).
+public class Lec09BatchingAggregatorDemo {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec09BatchingAggregatorDemo.class);
+
+    static void main() {
+        var executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jm", 1).factory());
+
+        try (var aggregator = new BatchingAggregatorService(executor)) {
+            var start = System.currentTimeMillis();
+            var futures = IntStream.rangeClosed(1, 500)
+                    .mapToObj(aggregator::getProductDto)
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            var list = futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+            var time = System.currentTimeMillis() - start;
+
+            log.info("list: {}", list);
+            log.info("{} products in {} ms with {} upstream calls", list.size(), time, aggregator.batches());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.jmunoz.sec08;
+
+import com.jmunoz.sec08.aggregator.DeadlineAggregatorService;
+import com.jmunoz.sec08.aggregator.ProductResult;
+import com.jmunoz.util.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// No olvidar ejecutar external-services.jar
+// El objetivo es ver que, cuando se acaba el tiempo, no queda trabajo huérfano (ver aggregator/DeadlineAggregatorService)
+public class Lec10DeadlineAggregatorDemo {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec10DeadlineAggregatorDemo.class);
+
+    static void main() {
+        // Las llamadas tardan alrededor de 1 segundo: con 1250 ms todo OK, con 750 ms todo TIMEOUT.
+        run(Duration.ofMillis(1250));
+        run(Duration.ofMillis(750));
+    }
+
+    private static void run(Duration deadline) {
+        var executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jm", 1).factory());
+        var aggregator = new DeadlineAggregatorService(executor, deadline);
+
+        // Probar valores 1, 51 (no hay rating), 52 (no hay producto ni rating)
+        for (var id : new int[]{1, 51, 52}) {
+            log(aggregator.getProduct(id));
+        }
+
+        // close() espera a que terminen todas las tareas. Si las llamadas que no llegaron a tiempo siguieran
+        // ejecutándose, tardaría unos 250 ms (lo que les falta para terminar). Como se cancelan, termina enseguida.
+        log.info("deadline {} ms, close: {} ms", deadline.toMillis(), CommonUtils.timer(executor::close));
+    }
+
+    private static void log(ProductResult result) {
+        log.info("product {}: description = {} ({}), rating = {} ({})", result.id(),
+                result.description().orElse("product-not-available"), result.description().status(),
+                result.rating().orElse(0), result.rating().status());
+    }
+}
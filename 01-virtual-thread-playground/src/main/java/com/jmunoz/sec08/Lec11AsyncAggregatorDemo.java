@@ -0,0 +1,35 @@
+package com.jmunoz.sec08;
+
+import com.jmunoz.sec08.aggregator.AggregatorService;
+import com.jmunoz.util.CommonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+// No olvidar ejecutar external-services.jar
+// Como Lec05AggregatorDemo, pero con getProductDtoAsync(): 20 productos (40 llamadas a la vez) sin un thread por llamada.
+public class Lec11AsyncAggregatorDemo {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec11AsyncAggregatorDemo.class);
+
+    static void main() {
+        // getProductDtoAsync() no usa el executor, pero AggregatorService lo necesita para getProductDto().
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var aggregator = new AggregatorService(executor);
+            // Calentamiento: la primera vez se abren las conexiones. Sin esto, alguna llamada puede pasar de 1250 ms.
+            aggregator.getProductDtoAsync(1).join();
+
+            var elapsed = CommonUtils.timer(() -> {
+                var futures = IntStream.rangeClosed(1, 20)
+                        .mapToObj(aggregator::getProductDtoAsync)
+                        .toList();
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+                futures.forEach(future -> log.info("product = {}", future.join()));
+            });
+            log.info("20 products in {} ms", elapsed);
+        }
+    }
+}
@@ -38,4 +38,20 @@ public class AggregatorService {
         // Hemos quitado de la firma del méto-do throws Exception.
         return new ProductDto(id, product.join(), rating.join());
     }
+
+    // Lo mismo, pero con las versiones asíncronas de Client (ver util/HttpTransport): no usamos el executor ni
+    // hay ningún thread esperando cada respuesta. Combinamos producto y rating con thenCombine() y devolvemos
+    // el CompletableFuture sin hacer join(): decide quien llama.
+    // Los valores por defecto son los mismos: null, -1 (error) y -2 (timeout).
+    // Igual que con supplyAsync(), orTimeout() no aborta la petición HTTP (ver DeadlineAggregatorService).
+    public CompletableFuture<ProductDto> getProductDtoAsync(int id) {
+        var product = Client.getProductAsync(id)
+                .orTimeout(1250, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> null);
+        var rating = Client.getRatingAsync(id)
+                .exceptionally(ex -> -1)
+                .orTimeout(1250, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> -2);
+        return product.thenCombine(rating, (description, stars) -> new ProductDto(id, description, stars));
+    }
 }
@@ -0,0 +1,53 @@
+package com.jmunoz.sec08.aggregator;
+
+import com.jmunoz.sec07.batch.Batcher;
+import com.jmunoz.sec08.externalservice.BatchClient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    El aggregator con batching de sec07, pero con CompletableFuture y la misma gestión de errores y timeout
+    que AggregatorService.
+    Batcher (sec07/batch) ya devuelve un CompletableFuture por id, así que getProductDto() puede devolver
+    CompletableFuture<ProductDto> sin bloquear ningún thread: combinamos producto y rating con thenCombine().
+*/
+public class BatchingAggregatorService implements AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final Duration MAX_DELAY = Duration.ofMillis(2);
+
+    private final Batcher<Integer, String> products;
+    private final Batcher<Integer, Integer> ratings;
+
+    public BatchingAggregatorService(ExecutorService executorService) {
+        this.products = new Batcher<>("products", MAX_BATCH_SIZE, MAX_DELAY, BatchClient::getProducts, executorService);
+        this.ratings = new Batcher<>("ratings", MAX_BATCH_SIZE, MAX_DELAY, BatchClient::getRatings, executorService);
+    }
+
+    public CompletableFuture<ProductDto> getProductDto(int id) {
+        // El future del Batcher lo comparten todos los que piden el mismo id en la misma ventana.
+        // orTimeout() lo completaría para todos, así que trabajamos sobre una copia.
+        var product = this.products.get(id).copy()
+                .orTimeout(1250, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> null);
+        // Igual que en AggregatorService: -1 si falla la llamada y -2 si se agota el timeout.
+        var rating = this.ratings.get(id).copy()
+                .exceptionally(ex -> -1)
+                .orTimeout(1250, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> -2);
+        return product.thenCombine(rating, (description, stars) -> new ProductDto(id, description, stars));
+    }
+
+    public long batches() {
+        return this.products.batches() + this.ratings.batches();
+    }
+
+    @Override
+    public void close() {
+        this.products.close();
+        this.ratings.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.jmunoz.sec08.aggregator;
+
+import com.jmunoz.sec08.externalservice.Client;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+    El mismo aggregator que AggregatorService, pero con un problema menos.
+
+    En AggregatorService, orTimeout() completa el CompletableFuture con TimeoutException, pero la tarea de
+    supplyAsync() sigue ejecutándose: CompletableFuture no conoce el thread que la ejecuta, y cancel() no lo
+    interrumpe. El virtual thread sigue esperando la respuesta (y ocupando la conexión) aunque nadie la vaya a usar.
+    Si el servicio externo va lento, cada petición deja trabajo huérfano.
+
+    Aquí:
+      - Un solo deadline para todas las llamadas (no un timeout por llamada): calculamos el instante límite al
+        empezar y cada espera usa lo que queda hasta él.
+      - Usamos executorService.submit(), que devuelve un Future que sí sabe qué thread ejecuta la tarea.
+        Si se acaba el tiempo, cancel(true) interrumpe el virtual thread y HttpClient.send() aborta la petición.
+      - En vez de -1, -2 o null, cada campo lleva su estado: OK, TIMEOUT o ERROR (ver Field).
+*/
+public class DeadlineAggregatorService {
+
+    private final ExecutorService executorService;
+    private final Duration deadline;
+
+    public DeadlineAggregatorService(ExecutorService executorService, Duration deadline) {
+        this.executorService = executorService;
+        this.deadline = deadline;
+    }
+
+    public ProductResult getProduct(int id) {
+        var deadlineNanos = System.nanoTime() + this.deadline.toNanos();
+        var product = this.executorService.submit(() -> Client.getProduct(id));
+        var rating = this.executorService.submit(() -> Client.getRating(id));
+        try {
+            return new ProductResult(id, await(product, deadlineNanos), await(rating, deadlineNanos));
+        } finally {
+            // Si el thread que llama es interrumpido no dejamos nada ejecutándose.
+            product.cancel(true);
+            rating.cancel(true);
+        }
+    }
+
+    // Espera como mucho hasta el deadline. Si no llega a tiempo, cancela e interrumpe la llamada.
+    private static <T> Field<T> await(Future<T> future, long deadlineNanos) {
+        try {
+            // Aunque el tiempo ya se haya agotado, get() devuelve el resultado si la tarea ya terminó.
+            return Field.ok(future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return Field.timeout();
+        } catch (ExecutionException | CancellationException e) {
+            return Field.error();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Field.error();
+        }
+    }
+}
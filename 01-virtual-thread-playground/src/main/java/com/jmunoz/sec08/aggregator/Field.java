@@ -0,0 +1,42 @@
+package com.jmunoz.sec08.aggregator;
+
+import java.util.Objects;
+
+// Un campo del resultado con su estado.
+// En vez de valores mágicos (-1, -2, null) para decir que algo ha ido mal, tenemos el estado y, si no es OK,
+// el valor por defecto que decida quien lo usa con orElse().
+public record Field<T>(Status status, T value) {
+
+    public enum Status {
+        OK,
+        TIMEOUT,
+        ERROR
+    }
+
+    public Field {
+        Objects.requireNonNull(status);
+        if (status == Status.OK) {
+            Objects.requireNonNull(value);
+        }
+    }
+
+    public static <T> Field<T> ok(T value) {
+        return new Field<>(Status.OK, value);
+    }
+
+    public static <T> Field<T> timeout() {
+        return new Field<>(Status.TIMEOUT, null);
+    }
+
+    public static <T> Field<T> error() {
+        return new Field<>(Status.ERROR, null);
+    }
+
+    public boolean isOk() {
+        return this.status == Status.OK;
+    }
+
+    public T orElse(T fallback) {
+        return isOk() ? this.value : fallback;
+    }
+}
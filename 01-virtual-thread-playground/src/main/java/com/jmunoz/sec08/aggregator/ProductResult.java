@@ -0,0 +1,11 @@
+package com.jmunoz.sec08.aggregator;
+
+// Como ProductDto, pero cada campo lleva su estado (ver Field).
+public record ProductResult(int id,
+                            Field<String> description,
+                            Field<Integer> rating) {
+
+    public boolean isComplete() {
+        return this.description.isOk() && this.rating.isOk();
+    }
+}
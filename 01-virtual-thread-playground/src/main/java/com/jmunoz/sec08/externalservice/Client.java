@@ -1,35 +1,46 @@
 package com.jmunoz.sec08.externalservice;
 
+import com.jmunoz.util.HttpTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public class Client {
 
     private static final Logger log = LoggerFactory.getLogger(Client.class);
-    private static final String PRODUCT_REQUEST_FORMAT = "http://localhost:7070/sec01/product/%d";
-    private static final String RATING_REQUEST_FORMAT = "http://localhost:7070/sec01/rating/%d";
+    private static final HttpTransport.UriTemplate PRODUCT_REQUEST = HttpTransport.template("http://localhost:7070/sec01/product/");
+    private static final HttpTransport.UriTemplate RATING_REQUEST = HttpTransport.template("http://localhost:7070/sec01/rating/");
 
     public static String getProduct(int id) {
-        return callExternalService(PRODUCT_REQUEST_FORMAT.formatted(id));
+        return callExternalService(PRODUCT_REQUEST.expand(id));
     }
 
     public static Integer getRating(int id) {
         return Integer.parseInt(
-                callExternalService(RATING_REQUEST_FORMAT.formatted(id))
+                callExternalService(RATING_REQUEST.expand(id))
         );
     }
 
-    private static String callExternalService(String url) {
-        log.info("calling {}", url);
-        // Esto inicia una conexión TCP con el servicio externo remoto basado en la url dada.
-        // Nos devuelve la respuesta en la variable stream (obtendremos los bytes y los convertiremos a String).
-        // En la aplicación que haremos más tarde con Spring usaremos HttpClient.
-        try(var stream = URI.create(url).toURL().openStream()) {    // stream debe estar cerrado una vez leído.
-            return new String(stream.readAllBytes());               // el tamaño de la respuesta es pequeño.
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    // Versiones asíncronas: no hay ningún thread esperando la respuesta.
+    public static CompletableFuture<String> getProductAsync(int id) {
+        return callExternalServiceAsync(PRODUCT_REQUEST.expand(id));
+    }
+
+    public static CompletableFuture<Integer> getRatingAsync(int id) {
+        return callExternalServiceAsync(RATING_REQUEST.expand(id)).thenApply(Integer::parseInt);
+    }
+
+    private static String callExternalService(URI uri) {
+        log.info("calling {}", uri);
+        // Antes: URI.create(url).toURL().openStream(), que iniciaba una conexión TCP nueva en cada llamada.
+        // Ahora usamos HttpClient (ver util/HttpTransport), que reutiliza las conexiones.
+        return HttpTransport.get(uri);
+    }
+
+    private static CompletableFuture<String> callExternalServiceAsync(URI uri) {
+        log.info("calling {}", uri);
+        return HttpTransport.getAsync(uri);
     }
 }
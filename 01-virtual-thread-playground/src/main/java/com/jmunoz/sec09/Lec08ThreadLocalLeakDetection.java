@@ -0,0 +1,51 @@
+package com.jmunoz.sec09;
+
+import com.jmunoz.sec09.controller.DocumentController;
+import com.jmunoz.sec09.leak.ThreadLocalLeakDetector;
+import com.jmunoz.sec09.security.SecurityContext;
+import com.jmunoz.sec09.security.UserRole;
+import com.jmunoz.sec09.security.threadlocal.AuthenticationService;
+import com.jmunoz.sec09.security.threadlocal.SecurityContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Future;
+
+// Lec03DocumentAccessWithThreadPool, pero con un pool de 2 platform threads y un login que se olvida de hacer
+// remove() del ThreadLocal. ThreadLocalLeakDetector avisa de la fuga.
+//
+// IMPORTANTE: Ejecutar con la VM option --add-opens java.base/java.lang=ALL-UNNAMED
+// Sin ella el detector se desactiva y no avisa de nada.
+public class Lec08ThreadLocalLeakDetection {
+
+    private static final Logger log = LoggerFactory.getLogger(Lec08ThreadLocalLeakDetection.class);
+
+    private static final DocumentController documentController = new DocumentController(SecurityContextHolder::getContext);
+
+    // Un "login" con el error: hace set() y nunca remove().
+    private static final ThreadLocal<SecurityContext> leakyContext = new ThreadLocal<>();
+
+    static void main() throws Exception {
+        var detector = new ThreadLocalLeakDetector();
+
+        try (var pool = detector.newFixedThreadPool(2)) {
+            // AuthenticationService (threadlocal) hace remove() en el finally. No hay fuga.
+            for (int userId = 1; userId <= 3; userId++) {
+                var id = userId;
+                pool.submit(() -> AuthenticationService.loginAndExecute(id, "password", documentController::read)).get();
+            }
+
+            // El admin hace login con el código erróneo...
+            pool.submit(() -> leakyContext.set(new SecurityContext(1, UserRole.ADMIN))).get();
+
+            // ...y las siguientes tareas que caen en el mismo thread del pool ven su contexto.
+            for (int i = 0; i < 4; i++) {
+                Future<?> future = pool.submit(() -> log.info("{} sees {}", Thread.currentThread().getName(), leakyContext.get()));
+                future.get();
+            }
+        }
+
+        log.info("detector enabled: {}", ThreadLocalLeakDetector.isEnabled());
+        detector.leaks().forEach(leak -> log.info("leak: {}", leak));
+    }
+}
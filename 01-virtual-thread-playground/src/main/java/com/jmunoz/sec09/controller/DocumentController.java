@@ -1,5 +1,8 @@
 package com.jmunoz.sec09.controller;
 
+import com.jmunoz.sec09.security.HasRole;
+import com.jmunoz.sec09.security.RoleCheck;
+import com.jmunoz.sec09.security.RoleChecks;
 import com.jmunoz.sec09.security.SecurityContext;
 import com.jmunoz.sec09.security.UserRole;
 import org.slf4j.Logger;
@@ -11,7 +14,13 @@ import java.util.function.Supplier;
 public class DocumentController {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentController.class);
+    // Las anotaciones @HasRole se procesan una sola vez, para la clase, no por instancia ni por llamada.
+    private static final RoleChecks ROLE_CHECKS = RoleChecks.of(DocumentController.class);
+
     private final Supplier<SecurityContext> securityContextSupplier;
+    private final RoleCheck readCheck = ROLE_CHECKS.get("read");
+    private final RoleCheck editCheck = ROLE_CHECKS.get("edit");
+    private final RoleCheck deleteCheck = ROLE_CHECKS.get("delete");
 
     public DocumentController(Supplier<SecurityContext> securityContextSupplier) {
         this.securityContextSupplier = securityContextSupplier;
@@ -20,30 +29,31 @@ public class DocumentController {
     // En la vida real, usando Spring, usaríamos esta anotación y por detrás, Spring usaría el objeto
     // SecurityContextSupplier y obtendría la información de conexión del usuario y validaría si el usuario
     // tiene el permiso VIEWER.
-    // Como no estamos usando el framework Spring, esto lo tenemos que hacer nosotros.
-    // @HasRole(VIEWER)
+    // Como no estamos usando el framework Spring, esto lo tenemos que hacer nosotros: RoleChecks lee las
+    // anotaciones al crear la clase y cada méto-do usa su RoleCheck precalculado.
+    @HasRole(UserRole.VIEWER)
     public void read() {
-        this.validateUserRole(UserRole.VIEWER);
+        this.validateUserRole(this.readCheck);
         log.info("reading");
     }
 
-    // @HasRole(EDITOR)
+    @HasRole(UserRole.EDITOR)
     public void edit() {
-        this.validateUserRole(UserRole.EDITOR);
+        this.validateUserRole(this.editCheck);
         log.info("editing");
     }
 
-    // @HasRole(ADMIN)
+    @HasRole(UserRole.ADMIN)
     public void delete() {
-        this.validateUserRole(UserRole.ADMIN);
+        this.validateUserRole(this.deleteCheck);
         log.info("deleting");
     }
 
-    private void validateUserRole(UserRole requiredRole) {
+    private void validateUserRole(RoleCheck check) {
         var securityContext = this.securityContextSupplier.get();
-        if (!securityContext.hasPermission(requiredRole)) {
-            log.error("user {} does not have {} permission", securityContext.userId(), requiredRole);
-            throw new SecurityException("Unauthorized access. Required role: " + requiredRole);
+        if (!check.isAllowed(securityContext)) {
+            log.error("user {} does not have {} permission", securityContext.userId(), check.requiredRole());
+            throw check.unauthorized();
         }
     }
 }
@@ -0,0 +1,203 @@
+package com.jmunoz.sec09.leak;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Detecta ThreadLocals que una tarea deja en un thread de un pool sin hacer remove().
+//
+// Con un pool de platform threads, el thread NO muere al terminar la tarea. Si la tarea hace set() y no hace
+// remove(), el valor se queda en el thread: la siguiente tarea que use ese thread ve el valor de la anterior
+// (por ejemplo, el usuario conectado de otra petición) y el objeto no se libera nunca.
+//
+// Antes de cada tarea guardamos qué ThreadLocals tiene el thread y con qué valor, y al terminar comparamos.
+// Solo son fugas los que la tarea ha cambiado: los que aparecen nuevos o tienen otro valor (otra instancia).
+// Un ThreadLocal que ya estaba y sigue con el mismo valor es una caché que se reutiliza, no una fuga.
+// Cada ThreadLocal se avisa una sola vez en el log y después solo se cuenta.
+//
+// La JDK y algunas librerías dejan ThreadLocals a propósito y nunca hacen remove() (buffers de Jackson,
+// logback...). No los avisamos si la clase del ThreadLocal o la de su valor (o la del objeto al que apunta, si el
+// valor es una SoftReference/WeakReference) empieza por uno de los prefijos de la allowlist (DEFAULT_ALLOWLIST si
+// no se indica otra).
+//
+// Para leer los ThreadLocals de un thread necesitamos reflection sobre java.lang.Thread:
+//   --add-opens java.base/java.lang=ALL-UNNAMED
+// Sin esa opción el detector se desactiva (lo indica en el log) y el pool funciona igual.
+public class ThreadLocalLeakDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadLocalLeakDetector.class);
+
+    private static final Field THREAD_LOCALS;
+    private static final Field INHERITABLE_THREAD_LOCALS;
+    private static final Field TABLE;
+    private static final Field VALUE;
+
+    static {
+        Field threadLocals = null;
+        Field inheritableThreadLocals = null;
+        Field table = null;
+        Field value = null;
+        try {
+            threadLocals = Thread.class.getDeclaredField("threadLocals");
+            inheritableThreadLocals = Thread.class.getDeclaredField("inheritableThreadLocals");
+            table = Class.forName("java.lang.ThreadLocal$ThreadLocalMap").getDeclaredField("table");
+            value = Class.forName("java.lang.ThreadLocal$ThreadLocalMap$Entry").getDeclaredField("value");
+            threadLocals.setAccessible(true);
+            inheritableThreadLocals.setAccessible(true);
+            table.setAccessible(true);
+            value.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("ThreadLocal leak detection disabled (run with --add-opens java.base/java.lang=ALL-UNNAMED): {}", e.toString());
+            threadLocals = null;
+        }
+        THREAD_LOCALS = threadLocals;
+        INHERITABLE_THREAD_LOCALS = inheritableThreadLocals;
+        TABLE = table;
+        VALUE = value;
+    }
+
+    // Una fuga: el ThreadLocal, el tipo del valor que se quedó y cuántas tareas lo han dejado.
+    public record Leak(String threadLocal, String valueType, String example, long tasks) {
+    }
+
+    public static final Set<String> DEFAULT_ALLOWLIST = Set.of(
+            "jdk.internal.",
+            "sun.",
+            "ch.qos.logback.",
+            "com.fasterxml.jackson.",
+            "tools.jackson."
+    );
+
+    // La clave es el propio ThreadLocal (por identidad). Los ThreadLocals suelen ser static final, así que
+    // mantener la referencia no es un problema.
+    private final Map<ThreadLocal<?>, LeakCounter> leaks = new ConcurrentHashMap<>();
+    private final Set<String> allowlist;
+
+    public ThreadLocalLeakDetector() {
+        this(DEFAULT_ALLOWLIST);
+    }
+
+    // allowlist: prefijos de nombres de clase que no se avisan nunca.
+    public ThreadLocalLeakDetector(Set<String> allowlist) {
+        this.allowlist = Set.copyOf(allowlist);
+    }
+
+    public static boolean isEnabled() {
+        return THREAD_LOCALS != null;
+    }
+
+    // Pool de N platform threads que comprueba los ThreadLocals después de cada tarea.
+    // beforeExecute() y afterExecute() se ejecutan en el thread del pool que ejecuta la tarea.
+    public ExecutorService newFixedThreadPool(int threads) {
+        var before = new ConcurrentHashMap<Thread, Map<ThreadLocal<?>, Object>>();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                before.put(thread, threadLocals(thread));
+            }
+
+            @Override
+            protected void afterExecute(Runnable task, Throwable throwable) {
+                var thread = Thread.currentThread();
+                check(thread, before.remove(thread));
+            }
+        };
+    }
+
+    public List<Leak> leaks() {
+        return this.leaks.entrySet().stream()
+                .map(e -> e.getValue().toLeak(e.getKey()))
+                .sorted(Comparator.comparingLong(Leak::tasks).reversed())
+                .toList();
+    }
+
+    private void check(Thread thread, Map<ThreadLocal<?>, Object> before) {
+        threadLocals(thread).forEach((threadLocal, value) -> {
+            // Mismo valor que antes de la tarea: no lo ha tocado.
+            if (before != null && before.get(threadLocal) == value) {
+                return;
+            }
+            if (isAllowed(threadLocal, value)) {
+                return;
+            }
+            var counter = this.leaks.computeIfAbsent(threadLocal, k -> {
+                log.warn("ThreadLocal {} not removed on pooled thread {}: {}", describe(threadLocal), thread.getName(), example(value));
+                return new LeakCounter(typeOf(value), example(value));
+            });
+            counter.tasks.increment();
+        });
+    }
+
+    // ThreadLocals (también los heredables) del thread con valor. Vacío si el detector está desactivado.
+    static Map<ThreadLocal<?>, Object> threadLocals(Thread thread) {
+        var result = new IdentityHashMap<ThreadLocal<?>, Object>();
+        if (!isEnabled()) {
+            return result;
+        }
+        try {
+            collect(THREAD_LOCALS.get(thread), result);
+            collect(INHERITABLE_THREAD_LOCALS.get(thread), result);
+        } catch (IllegalAccessException e) {
+            log.error("error", e);
+        }
+        return result;
+    }
+
+    // ThreadLocalMap es una tabla hash de Entry (WeakReference al ThreadLocal + valor).
+    private static void collect(Object map, Map<ThreadLocal<?>, Object> result) throws IllegalAccessException {
+        if (map == null || !(TABLE.get(map) instanceof Object[] table)) {
+            return;
+        }
+        for (var entry : table) {
+            if (entry instanceof Reference<?> reference && reference.get() instanceof ThreadLocal<?> threadLocal) {
+                var value = VALUE.get(entry);
+                if (value != null) {
+                    result.put(threadLocal, value);
+                }
+            }
+        }
+    }
+
+    private boolean isAllowed(ThreadLocal<?> threadLocal, Object value) {
+        var target = value instanceof Reference<?> reference ? reference.get() : null;
+        return isAllowed(threadLocal.getClass()) || isAllowed(value.getClass()) || (target != null && isAllowed(target.getClass()));
+    }
+
+    private boolean isAllowed(Class<?> type) {
+        var name = type.getName();
+        return this.allowlist.stream().anyMatch(name::startsWith);
+    }
+
+    private static String describe(ThreadLocal<?> threadLocal) {
+        return threadLocal.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(threadLocal));
+    }
+
+    private static String typeOf(Object value) {
+        return value.getClass().getName();
+    }
+
+    private static String example(Object value) {
+        var text = String.valueOf(value);
+        return text.length() > 100 ? text.substring(0, 100) + "..." : text;
+    }
+
+    private static final class LeakCounter {
+        private final String valueType;
+        private final String example;
+        private final LongAdder tasks = new LongAdder();
+
+        private LeakCounter(String valueType, String example) {
+            this.valueType = valueType;
+            this.example = example;
+        }
+
+        private Leak toLeak(ThreadLocal<?> threadLocal) {
+            return new Leak(describe(threadLocal), this.valueType, this.example, this.tasks.sum());
+        }
+    }
+}
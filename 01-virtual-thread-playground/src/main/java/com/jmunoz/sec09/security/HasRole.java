@@ -0,0 +1,16 @@
+package com.jmunoz.sec09.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Rol mínimo que necesita el usuario conectado para ejecutar el méto-do.
+// Es la anotación que antes solo aparecía comentada en DocumentController.
+// Se lee UNA SOLA VEZ, al crear el controller (ver RoleChecks), no en cada llamada.
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface HasRole {
+
+    UserRole value();
+}
@@ -0,0 +1,47 @@
+package com.jmunoz.sec09.security;
+
+// Comprobación precalculada para un méto-do anotado con @HasRole.
+//
+// La decisión solo depende del rol del usuario, así que al crearla calculamos si cada rol tiene permiso
+// (allowed, indexado por ordinal). En cada llamada solo leemos una posición del array.
+// No hay nada que invalidar: el rol se lee del SecurityContext en cada llamada, así que si cambia
+// (por ejemplo con runAsAdmin()) la siguiente comprobación ya usa el rol nuevo.
+public final class RoleCheck {
+
+    private final String resource;
+    private final UserRole requiredRole;
+    private final boolean[] allowed;
+
+    RoleCheck(String resource, UserRole requiredRole) {
+        this.resource = resource;
+        this.requiredRole = requiredRole;
+        var roles = UserRole.values();
+        this.allowed = new boolean[roles.length];
+        for (var role : roles) {
+            this.allowed[role.ordinal()] = new SecurityContext(0, role).hasPermission(requiredRole);
+        }
+    }
+
+    public boolean isAllowed(SecurityContext securityContext) {
+        return this.allowed[securityContext.role().ordinal()];
+    }
+
+    public void verify(SecurityContext securityContext) {
+        if (!isAllowed(securityContext)) {
+            throw unauthorized();
+        }
+    }
+
+    // La excepción de verify(), para quien ya ha llamado a isAllowed() (por ejemplo, para hacer log antes).
+    public SecurityException unauthorized() {
+        return new SecurityException("Unauthorized access to " + this.resource + ". Required role: " + this.requiredRole);
+    }
+
+    public String resource() {
+        return this.resource;
+    }
+
+    public UserRole requiredRole() {
+        return this.requiredRole;
+    }
+}
@@ -0,0 +1,39 @@
+package com.jmunoz.sec09.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Procesa las anotaciones @HasRole de una clase al arrancar y crea un RoleCheck por méto-do.
+// Es lo que haría Spring Security al crear el bean, pero sin proxies: el controller pide su RoleCheck una vez
+// (en el constructor) y lo guarda en un campo. Así no hay reflection en cada llamada.
+public final class RoleChecks {
+
+    private final Class<?> type;
+    private final Map<String, RoleCheck> checks;
+
+    private RoleChecks(Class<?> type, Map<String, RoleCheck> checks) {
+        this.type = type;
+        this.checks = checks;
+    }
+
+    public static RoleChecks of(Class<?> type) {
+        var checks = new HashMap<String, RoleCheck>();
+        for (var method : type.getDeclaredMethods()) {
+            var hasRole = method.getAnnotation(HasRole.class);
+            if (hasRole != null) {
+                var resource = type.getSimpleName() + "." + method.getName();
+                checks.put(method.getName(), new RoleCheck(resource, hasRole.value()));
+            }
+        }
+        return new RoleChecks(type, Map.copyOf(checks));
+    }
+
+    // Falla al arrancar (y no en la primera petición) si el méto-do no existe o no tiene @HasRole.
+    public RoleCheck get(String methodName) {
+        var check = this.checks.get(methodName);
+        if (check == null) {
+            throw new IllegalStateException("No @HasRole on " + this.type.getSimpleName() + "." + methodName);
+        }
+        return check;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jmunoz.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+// Transporte HTTP compartido por los clientes del playground (sec07, sec08).
+//
+// Antes cada llamada hacía URI.create(url).toURL().openStream(): formatear la url, una conexión TCP nueva
+// (handshake incluido) y cerrarla al terminar. Ahora:
+//   - Un solo HttpClient para todo el playground. Mantiene un pool de conexiones abiertas (keep-alive) y las reutiliza.
+//   - HTTP/2 si el servidor lo soporta. Si no, HTTP/1.1 (sin que tengamos que hacer nada).
+//   - Las tareas internas del HttpClient se ejecutan en virtual threads.
+//   - UriTemplate: la parte fija de la url se prepara una sola vez. Por llamada solo concatenamos el id.
+//   - Versiones asíncronas (getAsync) que devuelven CompletableFuture. Mientras esperamos la respuesta no hay
+//     ningún thread bloqueado, ni siquiera un virtual thread.
+//
+// Las respuestas son de pocos bytes: el HttpClient las recibe en sus propios buffers y ofString() las decodifica
+// una vez. Un pool de buffers propio por thread sería un ThreadLocal, justo lo que no queremos con virtual
+// threads (ver sec09), así que no lo hacemos.
+public class HttpTransport {
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    // Bloqueante. En un virtual thread no bloquea el carrier thread.
+    public static String get(URI uri) {
+        return body(uri, send(uri));
+    }
+
+    public static CompletableFuture<String> getAsync(URI uri) {
+        return sendAsync(uri).thenApply(response -> body(uri, response));
+    }
+
+    // Para quien necesita mirar el código de estado (ej: BatchClient con un 404).
+    public static HttpResponse<String> send(URI uri) {
+        try {
+            return HTTP_CLIENT.send(request(uri), HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static CompletableFuture<HttpResponse<String>> sendAsync(URI uri) {
+        return HTTP_CLIENT.sendAsync(request(uri), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Como hacía openStream(), una respuesta que no es 2xx es un error.
+    // En getAsync() el CompletableFuture termina con esta excepción.
+    private static String body(URI uri, HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("calling " + uri + ": " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder(uri).GET().build();
+    }
+
+    public static UriTemplate template(String prefix) {
+        return new UriTemplate(prefix);
+    }
+
+    // url = prefix + id. Ej: http://localhost:7070/sec01/product/ + 5
+    public record UriTemplate(String prefix) {
+
+        public URI expand(Object id) {
+            return URI.create(this.prefix + id);
+        }
+    }
+}
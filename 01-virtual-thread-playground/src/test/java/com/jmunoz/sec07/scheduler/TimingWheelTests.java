@@ -0,0 +1,109 @@
+package com.jmunoz.sec07.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cada tarea tiene que vencer exactamente en su tick, esté en el nivel que esté (cascading incluido).
+class TimingWheelTests {
+
+    @Test
+    void firesOnDeadlineTick() {
+        var wheel = new TimingWheel(0);
+        var task = task(5);
+        assertTrue(wheel.add(task));
+        assertEquals(1, wheel.size());
+
+        assertEquals(5, advanceUntilFired(wheel, task));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsExpiredDeadline() {
+        var wheel = new TimingWheel(100);
+        assertFalse(wheel.add(task(100)));
+        assertFalse(wheel.add(task(50)));
+        assertEquals(0, wheel.size());
+    }
+
+    // 300 va al nivel 1 y baja al 0 en el tick 256.
+    // 70.000 va al nivel 2, baja al 1 en el tick 65.536 y al 0 en el 69.888.
+    @Test
+    void cascadesFromUpperLevels() {
+        for (var deadline : new long[]{300, 70_000, 256, 65_536}) {
+            var wheel = new TimingWheel(0);
+            var task = task(deadline);
+            assertTrue(wheel.add(task));
+            assertEquals(deadline, advanceUntilFired(wheel, task));
+        }
+    }
+
+    // Igual, pero empezando a mitad de una vuelta: la posición de cada nivel no empieza en 0.
+    @Test
+    void cascadesFromArbitraryStart() {
+        var start = 1_000_003L;
+        var wheel = new TimingWheel(start);
+        var tasks = new ArrayList<ScheduledTask>();
+        for (var delay : new long[]{1, 255, 256, 257, 1_000, 65_535, 65_536, 100_000}) {
+            var task = task(start + delay);
+            assertTrue(wheel.add(task));
+            tasks.add(task);
+        }
+
+        var fired = new ArrayList<ScheduledTask>();
+        while (wheel.size() > 0) {
+            wheel.advance(task -> {
+                assertEquals(task.deadlineTick, wheel.tick());
+                fired.add(task);
+            });
+        }
+        assertEquals(tasks, fired);
+    }
+
+    // Las tareas ya terminadas (canceladas) no se recolocan al bajar de nivel.
+    @Test
+    void dropsDoneTasksWhenCascading() {
+        var wheel = new TimingWheel(0);
+        var task = task(300);
+        wheel.add(task);
+        task.complete();
+
+        var fired = new ArrayList<ScheduledTask>();
+        while (wheel.tick() < 300) {
+            wheel.advance(fired::add);
+        }
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void skipsOnlyWhenEmpty() {
+        var wheel = new TimingWheel(0);
+        wheel.skipTo(1_000);
+        assertEquals(1_000, wheel.tick());
+
+        wheel.add(task(1_010));
+        wheel.skipTo(2_000);
+        assertEquals(1_000, wheel.tick());
+    }
+
+    private static ScheduledTask task(long deadlineTick) {
+        var task = new ScheduledTask(() -> {}, 0, 0, OverrunPolicy.SKIP, null);
+        task.deadlineTick = deadlineTick;
+        return task;
+    }
+
+    // Devuelve el tick en el que vence la tarea.
+    private static long advanceUntilFired(TimingWheel wheel, ScheduledTask task) {
+        var fired = new ArrayList<ScheduledTask>();
+        while (fired.isEmpty()) {
+            assertTrue(wheel.tick() < task.deadlineTick, "task did not fire on its deadline");
+            wheel.advance(fired::add);
+        }
+        assertEquals(List.of(task), fired);
+        return wheel.tick();
+    }
+}
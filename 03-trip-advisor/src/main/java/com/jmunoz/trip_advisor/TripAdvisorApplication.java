@@ -2,8 +2,10 @@ package com.jmunoz.trip_advisor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class TripAdvisorApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,71 @@
+package com.jmunoz.trip_advisor.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores de NearCache.
+// Usamos LongAdder porque muchos threads los incrementan a la vez y casi nunca se leen.
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void hit() {
+        this.hits.increment();
+    }
+
+    void staleHit() {
+        this.staleHits.increment();
+    }
+
+    void miss() {
+        this.misses.increment();
+    }
+
+    void loadSuccess(long nanos) {
+        this.loadSuccesses.increment();
+        this.totalLoadTime.add(nanos);
+    }
+
+    void loadFailure(long nanos) {
+        this.loadFailures.increment();
+        this.totalLoadTime.add(nanos);
+    }
+
+    void eviction() {
+        this.evictions.increment();
+    }
+
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    // Entradas caducadas que servimos mientras se refrescan (stale-while-revalidate).
+    public long staleHits() {
+        return this.staleHits.sum();
+    }
+
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    public long loads() {
+        return this.loadSuccesses.sum() + this.loadFailures.sum();
+    }
+
+    public long loadFailures() {
+        return this.loadFailures.sum();
+    }
+
+    public long totalLoadTimeNanos() {
+        return this.totalLoadTime.sum();
+    }
+
+    public long evictions() {
+        return this.evictions.sum();
+    }
+}
@@ -0,0 +1,160 @@
+package com.jmunoz.trip_advisor.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Caché en memoria (near-cache) para los datos de un proveedor.
+//
+//   - TTL: mientras la entrada es fresca, la servimos directamente.
+//   - Stale-while-revalidate: si la entrada ha caducado pero sigue dentro de la ventana `staleWhileRevalidate`,
+//     la servimos inmediatamente y un virtual thread la refresca en segundo plano.
+//   - Coalescing: si N threads piden a la vez la misma clave que no está en caché, solo se hace una llamada
+//     al proveedor y todos esperan el mismo resultado.
+//   - Tamaño limitado con LRU: LinkedHashMap con accessOrder = true elimina la entrada menos usada.
+//
+// La carga siempre se hace en el executor y no en el thread que llama. Así, si a una petición se le acaba el
+// tiempo (FanOut la interrumpe), la carga compartida sigue adelante para el resto de peticiones que la esperan.
+// Los errores no se guardan en caché.
+public class NearCache<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    private final String name;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final ExecutorService executor;
+    private final CacheStats stats = new CacheStats();
+    // LinkedHashMap no es thread safe y con accessOrder = true incluso get() lo modifica.
+    // Lo protegemos con un ReentrantLock (ver sec05).
+    private final Lock lock = new ReentrantLock();
+    private final Map<K, Entry<V>> entries;
+    // Cargas en curso por clave (coalescing).
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    public NearCache(String name, Duration ttl, Duration staleWhileRevalidate, int maxSize, ExecutorService executor) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(name + ": maxSize must be at least 1: " + maxSize);
+        }
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.executor = executor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    stats.eviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Callable<V> loader) throws Exception {
+        var entry = read(key);
+        if (entry != null) {
+            var now = System.nanoTime();
+            if (now - entry.loadedAt < this.ttlNanos) {
+                this.stats.hit();
+                return entry.value;
+            }
+            if (now - entry.loadedAt < this.ttlNanos + this.staleNanos) {
+                this.stats.staleHit();
+                load(key, loader);
+                return entry.value;
+            }
+        }
+
+        this.stats.miss();
+        try {
+            return load(key, loader).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return this.stats;
+    }
+
+    // Si ya hay una carga en curso para esta clave, nos unimos a ella.
+    private CompletableFuture<V> load(K key, Callable<V> loader) {
+        var future = new CompletableFuture<V>();
+        var inFlight = this.loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        try {
+            this.executor.submit(() -> loadNow(key, loader, future));
+        } catch (RejectedExecutionException e) {
+            // Si no quitamos el future, todas las peticiones de esta clave se quedarían esperándolo.
+            log.warn("{}: could not load {}: executor rejected the task", this.name, key);
+            this.loading.remove(key, future);
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private void loadNow(K key, Callable<V> loader, CompletableFuture<V> future) {
+        var start = System.nanoTime();
+        try {
+            var value = loader.call();
+            write(key, value);
+            this.stats.loadSuccess(System.nanoTime() - start);
+            future.complete(value);
+        } catch (Exception e) {
+            log.warn("{}: could not load {}", this.name, key, e);
+            this.stats.loadFailure(System.nanoTime() - start);
+            future.completeExceptionally(e);
+        } finally {
+            this.loading.remove(key, future);
+        }
+    }
+
+    private Entry<V> read(K key) {
+        this.lock.lock();
+        try {
+            return this.entries.get(key);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void write(K key, V value) {
+        this.lock.lock();
+        try {
+            this.entries.put(key, new Entry<>(value, System.nanoTime()));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.jmunoz.trip_advisor.circuit;
+
+// El circuito está abierto (o medio abierto sin hueco para más pruebas) y no dejamos pasar la llamada.
+// Falla al momento, sin esperar al proveedor, y la sección del TripPlan queda con su valor por defecto.
+public class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,254 @@
+package com.jmunoz.trip_advisor.circuit;
+
+import com.jmunoz.trip_advisor.limit.LimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Circuit breaker para un proveedor.
+//
+//   - CLOSED: las llamadas pasan. Guardamos el resultado de las últimas `windowSize` llamadas (ventana deslizante).
+//     Si con al menos `minCalls` llamadas la proporción de errores o de llamadas lentas supera su umbral, abrimos.
+//   - OPEN: ninguna llamada pasa (CallNotPermittedException), así que la sección del TripPlan usa su valor por
+//     defecto al momento en vez de esperar al proveedor caído. Pasado `openDuration` pasamos a HALF_OPEN.
+//   - HALF_OPEN: dejamos pasar `halfOpenCalls` llamadas de prueba. Si van bien cerramos, si no volvemos a abrir.
+//
+// Las llamadas rechazadas por el limitador no cuentan como resultado: no dicen nada de la salud del proveedor.
+// Una llamada cancelada (deadline de FanOut, hedge perdedor) solo cuenta si ya había pasado `slowCallThreshold`:
+// entonces cuenta como error y como lenta. Si no, un proveedor colgado nunca abriría el circuito, porque FanOut
+// cancela sus llamadas al agotar el budget, antes del read timeout del service client.
+//
+// Todo el estado está protegido por un ReentrantLock (ver sec05). La llamada al proveedor se hace fuera del lock.
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongAdder notPermitted = new LongAdder();
+
+    private final Lock lock = new ReentrantLock();
+    // Protegidos por lock.
+    private State state = State.CLOSED;
+    private final Window window;
+    private long openedAt;
+    private int trialsStarted;
+    private final Window trials;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, Duration slowCallThreshold, Duration openDuration,
+                          int halfOpenCalls) {
+        if (windowSize < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException(name + ": windowSize and halfOpenCalls must be at least 1");
+        }
+        this.name = name;
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new Window(windowSize);
+        this.trials = new Window(halfOpenCalls);
+    }
+
+    public <T> T execute(Callable<T> callable) throws Exception {
+        acquirePermission();
+        var start = System.nanoTime();
+        var recorded = false;
+        try {
+            var value = callable.call();
+            onResult(false, System.nanoTime() - start);
+            recorded = true;
+            return value;
+        } catch (Exception e) {
+            var nanos = System.nanoTime() - start;
+            var cancelled = e instanceof InterruptedException || Thread.currentThread().isInterrupted();
+            if (!(e instanceof LimitExceededException) && (!cancelled || nanos > this.slowCallNanos)) {
+                onResult(true, nanos);
+                recorded = true;
+            }
+            throw e;
+        } finally {
+            // Llamada sin resultado (cancelada pronto, rechazada por el limitador o un Error): si era de prueba,
+            // su hueco queda libre.
+            if (!recorded) {
+                onIgnored();
+            }
+        }
+    }
+
+    public State state() {
+        this.lock.lock();
+        try {
+            return currentState();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long notPermitted() {
+        return this.notPermitted.sum();
+    }
+
+    private void acquirePermission() {
+        this.lock.lock();
+        try {
+            switch (currentState()) {
+                case CLOSED -> {
+                    return;
+                }
+                case HALF_OPEN -> {
+                    if (this.trialsStarted < this.halfOpenCalls) {
+                        this.trialsStarted++;
+                        return;
+                    }
+                }
+                case OPEN -> {
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        this.notPermitted.increment();
+        throw new CallNotPermittedException(this.name + ": circuit is open");
+    }
+
+    private void onResult(boolean failed, long nanos) {
+        var slow = nanos > this.slowCallNanos;
+        this.lock.lock();
+        try {
+            switch (currentState()) {
+                case CLOSED -> {
+                    this.window.record(failed, slow);
+                    if (this.window.count() >= this.minCalls && tripped(this.window)) {
+                        transitionTo(State.OPEN);
+                    }
+                }
+                case HALF_OPEN -> {
+                    this.trials.record(failed, slow);
+                    if (this.trials.count() >= this.halfOpenCalls) {
+                        transitionTo(tripped(this.trials) ? State.OPEN : State.CLOSED);
+                    }
+                }
+                // Una llamada que empezó antes de abrir el circuito. Ya no cambia nada.
+                case OPEN -> {
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Si era una llamada de prueba, dejamos su hueco a otra.
+    private void onIgnored() {
+        this.lock.lock();
+        try {
+            if (this.state == State.HALF_OPEN && this.trialsStarted > this.trials.count()) {
+                this.trialsStarted--;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // El paso de OPEN a HALF_OPEN no lo hace nadie: lo descubre la primera llamada que llega pasado openDuration.
+    private State currentState() {
+        if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return this.state;
+    }
+
+    private boolean tripped(Window window) {
+        return window.failureRate() >= this.failureRateThreshold || window.slowCallRate() >= this.slowCallRateThreshold;
+    }
+
+    private void transitionTo(State next) {
+        log.warn("{}: circuit {} -> {} (failure rate: {}, slow call rate: {})", this.name, this.state, next,
+                this.window.failureRate(), this.window.slowCallRate());
+        this.state = next;
+        switch (next) {
+            case OPEN -> this.openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                this.trialsStarted = 0;
+                this.trials.clear();
+            }
+            case CLOSED -> this.window.clear();
+        }
+    }
+
+    // Ventana deslizante por número de llamadas (buffer circular).
+    private static final class Window {
+
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private int next;
+        private int count;
+        private int failures;
+        private int slowCalls;
+
+        private Window(int size) {
+            this.failed = new boolean[size];
+            this.slow = new boolean[size];
+        }
+
+        private void record(boolean failed, boolean slow) {
+            if (this.count == this.failed.length) {
+                // Sale de la ventana la llamada más antigua.
+                if (this.failed[this.next]) {
+                    this.failures--;
+                }
+                if (this.slow[this.next]) {
+                    this.slowCalls--;
+                }
+            } else {
+                this.count++;
+            }
+            this.failed[this.next] = failed;
+            this.slow[this.next] = slow;
+            if (failed) {
+                this.failures++;
+            }
+            if (slow) {
+                this.slowCalls++;
+            }
+            this.next = (this.next + 1) % this.failed.length;
+        }
+
+        private int count() {
+            return this.count;
+        }
+
+        private double failureRate() {
+            return this.count == 0 ? 0 : (double) this.failures / this.count;
+        }
+
+        private double slowCallRate() {
+            return this.count == 0 ? 0 : (double) this.slowCalls / this.count;
+        }
+
+        private void clear() {
+            this.next = 0;
+            this.count = 0;
+            this.failures = 0;
+            this.slowCalls = 0;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.jmunoz.trip_advisor.client;
 
 import com.jmunoz.trip_advisor.dto.Accommodation;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.client.RestClient;
 
 import java.util.List;
@@ -10,18 +9,27 @@ import java.util.List;
 public class AccommodationServiceClient {
 
     private final RestClient client;
+    private final JsonArrayReader<Accommodation> reader;
 
     // Se construirá SOLO UNA VEZ RestClient vía una clase de configuración, pasando
     // RestClient a esta clase.
     // La baseUrl ya viene configurada. Solo tenemos que añadir la parte del uri que falta.
-    public AccommodationServiceClient(RestClient client) {
+    public AccommodationServiceClient(RestClient client, JsonArrayReader<Accommodation> reader) {
         this.client = client;
+        this.reader = reader;
     }
 
+    // La lista de alojamientos puede ser grande. La leemos directamente del body de la respuesta
+    // (ver JsonArrayReader) en vez de usar .retrieve().body(...).
+    // Con exchange() los errores HTTP no se lanzan solos. createException() lanza la misma excepción que retrieve().
     public List<Accommodation> getAccommodations(String airportCode) {
         return this.client.get()
                 .uri("{airportCode}", airportCode)
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Accommodation>>() {});
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw response.createException();
+                    }
+                    return this.reader.readList(response.getBody());
+                });
     }
 }
@@ -1,27 +1,63 @@
 package com.jmunoz.trip_advisor.client;
 
 import com.jmunoz.trip_advisor.dto.Flight;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.client.RestClient;
 
+import java.io.InputStream;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 // No se indica la anotación @Service porque en una clase de configuración expondremos este bean.
 public class FlightSearchServiceClient {
 
+    private static final Comparator<Flight> BY_PRICE = Comparator.comparingInt(Flight::price);
+
     private final RestClient client;
+    private final JsonArrayReader<Flight> reader;
 
     // Se construirá SOLO UNA VEZ RestClient vía una clase de configuración, pasando
     // RestClient a esta clase.
     // La baseUrl ya viene configurada. Solo tenemos que añadir la parte del uri que falta.
-    public FlightSearchServiceClient(RestClient client) {
+    public FlightSearchServiceClient(RestClient client, JsonArrayReader<Flight> reader) {
         this.client = client;
+        this.reader = reader;
     }
 
     public List<Flight> getFlights(String departure, String arrival) {
+        return exchange(departure, arrival, this.reader::readList);
+    }
+
+    // El vuelo más barato sin crear la lista de vuelos: nos quedamos con el mínimo mientras leemos la respuesta.
+    public Optional<Flight> getCheapestFlight(String departure, String arrival) {
+        return exchange(departure, arrival, body -> Optional.ofNullable(
+                this.reader.fold(body, null, (Flight cheapest, Flight flight) ->
+                        cheapest == null || BY_PRICE.compare(flight, cheapest) < 0 ? flight : cheapest)));
+    }
+
+    // Pasa cada vuelo a consumer según se lee, sin crear la lista. Devuelve el número de vuelos.
+    public int forEachFlight(String departure, String arrival, Consumer<? super Flight> consumer) {
+        return exchange(departure, arrival, body -> {
+            var count = new int[1];
+            this.reader.forEach(body, flight -> {
+                count[0]++;
+                consumer.accept(flight);
+            });
+            return count[0];
+        });
+    }
+
+    // Con exchange() los errores HTTP no se lanzan solos. createException() lanza la misma excepción que retrieve().
+    private <R> R exchange(String departure, String arrival, Function<InputStream, R> reading) {
         return this.client.get()
                 .uri("/{departure}/{arrival}", departure, arrival)
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Flight>>() {});
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw response.createException();
+                    }
+                    return reading.apply(response.getBody());
+                });
     }
 }
@@ -0,0 +1,53 @@
+package com.jmunoz.trip_advisor.client;
+
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+// Lee un array JSON de records directamente del InputStream de la respuesta, elemento a elemento.
+//
+// Con .retrieve().body(new ParameterizedTypeReference<List<X>>() {}) se resuelve el tipo genérico y se busca
+// el deserializer en cada llamada, y siempre se crea la lista completa.
+// Aquí el ObjectReader se construye SOLO UNA VEZ por tipo (el deserializer del record queda resuelto y cacheado),
+// y quien llama decide qué hacer con cada elemento: coleccionarlo, pasarlo a otro sitio o quedarse solo
+// con un resultado (fold), sin crear la lista.
+//
+// ObjectReader es inmutable y thread-safe, así que una instancia la comparten todas las peticiones.
+public class JsonArrayReader<T> {
+
+    private final ObjectReader reader;
+
+    public JsonArrayReader(JsonMapper mapper, Class<T> type) {
+        this.reader = mapper.readerFor(type);
+    }
+
+    // Si el JSON raíz es un array, readValues() recorre sus elementos (no necesitamos leer el array entero).
+    public void forEach(InputStream body, Consumer<? super T> consumer) {
+        try (var values = this.reader.<T>readValues(body)) {
+            while (values.hasNextValue()) {
+                consumer.accept(values.nextValue());
+            }
+        }
+    }
+
+    public List<T> readList(InputStream body) {
+        var list = new ArrayList<T>();
+        forEach(body, list::add);
+        return list;
+    }
+
+    public <A> A fold(InputStream body, A initial, BiFunction<A, ? super T, A> accumulator) {
+        var result = initial;
+        try (var values = this.reader.<T>readValues(body)) {
+            while (values.hasNextValue()) {
+                result = accumulator.apply(result, values.nextValue());
+            }
+        }
+        return result;
+    }
+}
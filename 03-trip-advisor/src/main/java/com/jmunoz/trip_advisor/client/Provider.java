@@ -0,0 +1,13 @@
+package com.jmunoz.trip_advisor.client;
+
+// Proveedores de Trip Planning (sec02).
+// Lo usamos como clave para poder configurar cada proveedor por separado (presupuestos de tiempo, etc.)
+// Spring convierte sin problema las claves de las properties: trip-plan.budgets.local-recommendations -> LOCAL_RECOMMENDATIONS
+public enum Provider {
+
+    ACCOMMODATIONS,
+    EVENTS,
+    LOCAL_RECOMMENDATIONS,
+    TRANSPORTATION,
+    WEATHER;
+}
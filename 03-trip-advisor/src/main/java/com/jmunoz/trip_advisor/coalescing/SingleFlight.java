@@ -0,0 +1,98 @@
+package com.jmunoz.trip_advisor.coalescing;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Request coalescing (single-flight) para un proveedor.
+//
+// Si N threads hacen a la vez la misma llamada (misma clave), solo la primera llega al proveedor y el resto se
+// une a ella: todos reciben el mismo resultado o el mismo error. En cuanto termina, la llamada desaparece,
+// así que la siguiente vuelve a ir al proveedor. No es una caché: no hay TTL ni se guarda nada.
+//
+// Igual que en NearCache, la llamada se ejecuta en el executor y no en el thread que llama. Así, si a una
+// petición se le acaba el tiempo (FanOut la interrumpe), la llamada sigue adelante para las demás.
+// Solo se cancela cuando ya no queda nadie esperándola.
+public class SingleFlight<K> {
+
+    private final String name;
+    private final ExecutorService executor;
+    // Llamadas en curso por clave.
+    private final Map<K, Call> calls = new ConcurrentHashMap<>();
+    // Llamadas que se han unido a otra en vez de ir al proveedor.
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name, ExecutorService executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(K key, Callable<V> callable) throws Exception {
+        var call = join(key, callable);
+        try {
+            return (V) call.task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            leave(key, call);
+            throw e;
+        }
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public int inFlight() {
+        return this.calls.size();
+    }
+
+    public long coalesced() {
+        return this.coalesced.sum();
+    }
+
+    // compute() es atómico por clave: o nos unimos a la llamada en curso o creamos una nueva.
+    // Lanzar la tarea dentro de compute() es seguro: submit() no bloquea.
+    private Call join(K key, Callable<?> callable) {
+        return this.calls.compute(key, (k, call) -> {
+            if (call != null) {
+                call.waiters++;
+                this.coalesced.increment();
+                return call;
+            }
+            var created = new Call();
+            created.task = this.executor.submit(() -> {
+                try {
+                    return callable.call();
+                } finally {
+                    this.calls.remove(key, created);
+                }
+            });
+            return created;
+        });
+    }
+
+    // Nos han interrumpido. Si éramos los últimos esperando, cancelamos la llamada al proveedor.
+    private void leave(K key, Call call) {
+        this.calls.computeIfPresent(key, (k, current) -> {
+            if (current != call) {
+                return current;
+            }
+            if (--current.waiters > 0) {
+                return current;
+            }
+            current.task.cancel(true);
+            return null;
+        });
+    }
+
+    // waiters y task solo se modifican dentro de compute() / computeIfPresent() para su clave.
+    private static final class Call {
+        private int waiters = 1;
+        private Future<?> task;
+    }
+}
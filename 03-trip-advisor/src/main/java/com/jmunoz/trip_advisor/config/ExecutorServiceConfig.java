@@ -1,5 +1,10 @@
 package com.jmunoz.trip_advisor.config;
 
+import com.jmunoz.trip_advisor.context.RequestContextExecutorService;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
 import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Bean;
@@ -16,8 +21,8 @@ public class ExecutorServiceConfig {
     // Esto lo conseguimos con la anotación @ConditionalOnThreading()
     @Bean
     @ConditionalOnThreading(Threading.VIRTUAL)
-    public ExecutorService virtualThreadExecutor() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    public ExecutorService virtualThreadExecutor(MeterRegistry registry) {
+        return instrument(Executors.newVirtualThreadPerTaskExecutor(), "virtual", registry);
     }
 
     // IMPORTANTE: Solo queremos crear este bean cuando la property spring.threads.virtual.enabled es false.
@@ -25,8 +30,20 @@ public class ExecutorServiceConfig {
     // Esto lo conseguimos con la anotación @ConditionalOnThreading()
     @Bean
     @ConditionalOnThreading(Threading.PLATFORM)
-    public ExecutorService platformThreadExecutor() {
+    public ExecutorService platformThreadExecutor(MeterRegistry registry) {
         // Para que cree los threads que necesite.
-        return Executors.newCachedThreadPool();
+        return instrument(Executors.newCachedThreadPool(), "platform", registry);
+    }
+
+    // - ExecutorServiceMetrics: métricas executor.* (tareas enviadas, en curso, tiempo de ejecución...)
+    //   con el tag name=virtual o name=platform.
+    // - ContextExecutorService: cada tarea se ejecuta con el contexto del thread que la envió (la observation/span
+    //   actual, el MDC...). Así las llamadas a los proveedores que hacemos en otros threads (FanOut, hedging,
+    //   near-cache) aparecen en la traza como hijas del TripPlan.
+    // - RequestContextExecutorService: cada tarea se ejecuta con el RequestContext (ScopedValue) de la petición.
+    private static ExecutorService instrument(ExecutorService executor, String name, MeterRegistry registry) {
+        var monitored = ExecutorServiceMetrics.monitor(registry, executor, name);
+        var snapshots = ContextSnapshotFactory.builder().build();
+        return new RequestContextExecutorService(ContextExecutorService.wrap(monitored, snapshots::captureAll));
     }
 }
@@ -0,0 +1,165 @@
+package com.jmunoz.trip_advisor.config;
+
+import com.jmunoz.trip_advisor.limit.AdaptiveLimiter;
+import com.jmunoz.trip_advisor.monitor.VirtualThreadMonitor;
+import com.jmunoz.trip_advisor.service.PlanningServiceGateway;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.management.VirtualThreadSchedulerMXBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+// Exponemos métricas propias vía Actuator (/actuator/metrics).
+@Configuration
+public class MetricsConfig {
+
+    // Métricas de la near-cache de cada proveedor: aciertos, fallos, tiempo de carga...
+    // Ejemplo: /actuator/metrics/trip.cache.requests?tag=provider:EVENTS&tag=result:hit
+    @Bean
+    public MeterBinder nearCacheMetrics(PlanningServiceGateway gateway) {
+        return registry -> gateway.caches().forEach((provider, cache) -> {
+            var stats = cache.stats();
+            var tag = provider.name();
+            FunctionCounter.builder("trip.cache.requests", stats, s -> s.hits())
+                    .tags("provider", tag, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("trip.cache.requests", stats, s -> s.staleHits())
+                    .tags("provider", tag, "result", "stale")
+                    .register(registry);
+            FunctionCounter.builder("trip.cache.requests", stats, s -> s.misses())
+                    .tags("provider", tag, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("trip.cache.load.failures", stats, s -> s.loadFailures())
+                    .tags("provider", tag)
+                    .register(registry);
+            FunctionCounter.builder("trip.cache.evictions", stats, s -> s.evictions())
+                    .tags("provider", tag)
+                    .register(registry);
+            FunctionTimer.builder("trip.cache.load", stats, s -> s.loads(), s -> s.totalLoadTimeNanos(), TimeUnit.NANOSECONDS)
+                    .tags("provider", tag)
+                    .register(registry);
+            Gauge.builder("trip.cache.size", cache, c -> c.size())
+                    .tags("provider", tag)
+                    .register(registry);
+        });
+    }
+
+    // Límite de concurrencia de cada proveedor. Con AdaptiveLimiter podemos ver cómo se mueve el límite en tiempo real.
+    // Ejemplo: /actuator/metrics/trip.limiter.limit?tag=provider:EVENTS
+    @Bean
+    public MeterBinder limiterMetrics(PlanningServiceGateway gateway) {
+        return registry -> gateway.limiters().forEach((provider, limiter) -> {
+            var tag = provider.name();
+            Gauge.builder("trip.limiter.limit", limiter, l -> l.limit())
+                    .tags("provider", tag)
+                    .register(registry);
+            Gauge.builder("trip.limiter.in.flight", limiter, l -> l.inFlight())
+                    .tags("provider", tag)
+                    .register(registry);
+            if (limiter instanceof AdaptiveLimiter adaptive) {
+                Gauge.builder("trip.limiter.waiting", adaptive, a -> a.waiting())
+                        .tags("provider", tag)
+                        .register(registry);
+                FunctionCounter.builder("trip.limiter.rejected", adaptive, a -> a.rejected())
+                        .tags("provider", tag)
+                        .register(registry);
+            }
+        });
+    }
+
+    // Request coalescing: llamadas compartidas en curso y llamadas que se han unido a otra en vez de ir al proveedor.
+    @Bean
+    public MeterBinder coalescingMetrics(PlanningServiceGateway gateway) {
+        return registry -> gateway.singleFlights().forEach((provider, singleFlight) -> {
+            var tag = provider.name();
+            Gauge.builder("trip.coalescing.in.flight", singleFlight, s -> s.inFlight())
+                    .tags("provider", tag)
+                    .register(registry);
+            FunctionCounter.builder("trip.coalescing.coalesced", singleFlight, s -> s.coalesced())
+                    .tags("provider", tag)
+                    .register(registry);
+        });
+    }
+
+    // Estado del circuit breaker de cada proveedor (0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN) y llamadas que no ha dejado pasar.
+    @Bean
+    public MeterBinder circuitBreakerMetrics(PlanningServiceGateway gateway) {
+        return registry -> gateway.circuitBreakers().forEach((provider, circuitBreaker) -> {
+            var tag = provider.name();
+            Gauge.builder("trip.circuit.state", circuitBreaker, c -> c.state().ordinal())
+                    .tags("provider", tag)
+                    .register(registry);
+            FunctionCounter.builder("trip.circuit.not.permitted", circuitBreaker, c -> c.notPermitted())
+                    .tags("provider", tag)
+                    .register(registry);
+        });
+    }
+
+    // Llamadas reales en curso a cada proveedor (después de la caché y del limitador).
+    // El tiempo y los errores de cada llamada los da la observation trip.upstream (ver PlanningServiceGateway).
+    @Bean
+    public MeterBinder upstreamMetrics(PlanningServiceGateway gateway) {
+        return registry -> gateway.inFlight().forEach((provider, inFlight) ->
+                Gauge.builder("trip.upstream.in.flight", inFlight, i -> i.get())
+                        .tags("provider", provider.name())
+                        .register(registry));
+    }
+
+    // Scheduler de virtual threads (Java 24+). jvm.threads.* solo cuenta platform threads.
+    //   mounted: virtual threads ejecutándose ahora mismo en un carrier.
+    //   queued: virtual threads listos para ejecutarse esperando un carrier. Si crece, faltan carriers
+    //           (o hay trabajo de CPU / pinning que los bloquea).
+    //   carrier.utilization: proporción de carriers ocupados (mounted / parallelism). Cerca de 1 con queued > 0:
+    //                        los carriers son el cuello de botella.
+    @Bean
+    public MeterBinder virtualThreadMetrics() {
+        return registry -> {
+            var scheduler = ManagementFactory.getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+            Gauge.builder("jvm.threads.virtual.mounted", scheduler, s -> s.getMountedVirtualThreadCount())
+                    .register(registry);
+            Gauge.builder("jvm.threads.virtual.carrier.utilization", scheduler,
+                            s -> (double) s.getMountedVirtualThreadCount() / s.getParallelism())
+                    .register(registry);
+            Gauge.builder("jvm.threads.virtual.queued", scheduler, s -> s.getQueuedVirtualThreadCount())
+                    .register(registry);
+            Gauge.builder("jvm.threads.virtual.scheduler.parallelism", scheduler, s -> s.getParallelism())
+                    .register(registry);
+            Gauge.builder("jvm.threads.virtual.scheduler.pool.size", scheduler, s -> s.getPoolSize())
+                    .register(registry);
+        };
+    }
+
+    // Eventos JFR de virtual threads (ver VirtualThreadMonitor).
+    // El detalle por pila está en /actuator/pinning.
+    @Bean
+    public MeterBinder virtualThreadEventMetrics(VirtualThreadMonitor monitor) {
+        return registry -> {
+            FunctionCounter.builder("jvm.threads.virtual.pinned", monitor, m -> m.pinnedEvents())
+                    .register(registry);
+            FunctionCounter.builder("jvm.threads.virtual.pinned.time", monitor, m -> m.pinnedSeconds())
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("jvm.threads.virtual.submit.failed", monitor, m -> m.submitFailed())
+                    .register(registry);
+            FunctionCounter.builder("jvm.threads.virtual.started", monitor, m -> m.started())
+                    .register(registry);
+            FunctionCounter.builder("jvm.threads.virtual.ended", monitor, m -> m.ended())
+                    .register(registry);
+            // Aparcados (esperando I/O, un lock, sleep...): vivos que ni están montados ni esperan carrier.
+            // Necesita los eventos de inicio/fin (virtual-thread-monitor.track-lifecycle=true).
+            if (monitor.tracksLifecycle()) {
+                var scheduler = ManagementFactory.getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+                Gauge.builder("jvm.threads.virtual.live", monitor, m -> m.live())
+                        .register(registry);
+                Gauge.builder("jvm.threads.virtual.parked", monitor, m -> Math.max(0,
+                                m.live() - scheduler.getMountedVirtualThreadCount() - scheduler.getQueuedVirtualThreadCount()))
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -1,16 +1,26 @@
 package com.jmunoz.trip_advisor.config;
 
 import com.jmunoz.trip_advisor.client.*;
+import com.jmunoz.trip_advisor.context.RequestContext;
+import com.jmunoz.trip_advisor.context.RequestContextHolder;
+import com.jmunoz.trip_advisor.dto.Accommodation;
+import com.jmunoz.trip_advisor.dto.Flight;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
 import java.net.http.HttpClient;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
 
 @Configuration
 public class ServiceClientsConfig {
@@ -20,56 +30,117 @@ public class ServiceClientsConfig {
     @Value("${spring.threads.virtual.enabled}")
     private boolean isVirtualThreadEnabled;
 
+    private final ServiceClientsProperties properties;
+    // Un solo executor compartido por todos los HttpClient (el bean de ExecutorServiceConfig).
+    // Antes creábamos un newVirtualThreadPerTaskExecutor() por cliente.
+    private final ExecutorService executor;
+    // Métricas http.client.requests y propagación de la traza (cabecera traceparent) a los proveedores.
+    private final ObservationRegistry observationRegistry;
+    // El JsonMapper de Spring Boot, para los clientes que leen la respuesta en streaming (ver JsonArrayReader).
+    private final JsonMapper jsonMapper;
+
+    public ServiceClientsConfig(ServiceClientsProperties properties, ExecutorService executor,
+                                ObservationRegistry observationRegistry, JsonMapper jsonMapper) {
+        this.properties = properties;
+        this.executor = executor;
+        this.observationRegistry = observationRegistry;
+        this.jsonMapper = jsonMapper;
+
+        // keep-alive y max-streams del HttpClient de la JDK son system properties de toda la JVM, que se leen una
+        // sola vez al cargar la implementación. No las fijamos aquí: si ya se ha creado algún HttpClient (actuator,
+        // exportador OTLP, tests...) no tendrían efecto. Se pasan al arrancar con -D (ver pom.xml y README).
+        log.info("jdk.httpclient.keepalive.timeout={}, jdk.httpclient.maxstreams={} (JVM-wide, set with -D at launch)",
+                System.getProperty("jdk.httpclient.keepalive.timeout", "default"),
+                System.getProperty("jdk.httpclient.maxstreams", "default"));
+    }
+
     @Bean
     public AccommodationServiceClient accommodationServiceClient(@Value("${accommodation.service.url}") String baseUrl) {
-        return new AccommodationServiceClient(buildRestClient(baseUrl));
+        return new AccommodationServiceClient(buildRestClient("accommodation", baseUrl),
+                new JsonArrayReader<>(this.jsonMapper, Accommodation.class));
     }
 
     @Bean
     public EventServiceClient eventServiceClient(@Value("${event.service.url}") String baseUrl) {
-        return new EventServiceClient(buildRestClient(baseUrl));
+        return new EventServiceClient(buildRestClient("event", baseUrl));
     }
 
     @Bean
     public WeatherServiceClient weatherServiceClient(@Value("${weather.service.url}") String baseUrl) {
-        return new WeatherServiceClient(buildRestClient(baseUrl));
+        return new WeatherServiceClient(buildRestClient("weather", baseUrl));
     }
 
     @Bean
     public TransportationServiceClient transportationServiceClient(@Value("${transportation.service.url}") String baseUrl) {
-        return new TransportationServiceClient(buildRestClient(baseUrl));
+        return new TransportationServiceClient(buildRestClient("transportation", baseUrl));
     }
 
     @Bean
     public LocalRecommendationServiceClient recommendationServiceClient(@Value("${local-recommendation.service.url}") String baseUrl) {
-        return new LocalRecommendationServiceClient(buildRestClient(baseUrl));
+        return new LocalRecommendationServiceClient(buildRestClient("local-recommendation", baseUrl));
     }
 
     @Bean
     public FlightSearchServiceClient flightSearchServiceClient(@Value("${flight-search.service.url}") String baseUrl) {
-        return new FlightSearchServiceClient(buildRestClient(baseUrl));
+        return new FlightSearchServiceClient(buildRestClient("flight-search", baseUrl),
+                new JsonArrayReader<>(this.jsonMapper, Flight.class));
     }
 
     @Bean
     public FlightReservationServiceClient reservationServiceClient(@Value("${flight-reservation.service.url}") String baseUrl) {
-        return new FlightReservationServiceClient(buildRestClient(baseUrl));
+        return new FlightReservationServiceClient(buildRestClient("flight-reservation", baseUrl));
     }
 
     // RestClient por debajo usa HttpClient, y este crea muchos platform threads para ejecutar las tareas.
     // Es decir, que al final usa Cached Thread Pool y crea muchos threads.
     // Esto lo hemos visto en la prueba de JMeter y JConsole.
     // Vamos a corregir esto usando requestFactory()
-    private RestClient buildRestClient(String baseUrl) {
-        log.info("base url: {}", baseUrl);
-        var builder = RestClient.builder().baseUrl(baseUrl);
+    //
+    // Cada proveedor tiene su propio HttpClient (y por tanto su propio pool de conexiones), configurado con
+    // service-clients.defaults y service-clients.clients.<nombre>.
+    // Sin connect timeout ni read timeout, un proveedor lento podía retener conexiones (y puertos) sin límite.
+    private RestClient buildRestClient(String name, String baseUrl) {
+        var http = this.properties.forClient(name);
+        log.info("{} base url: {}, {}", name, baseUrl, http);
+
+        var httpClientBuilder = HttpClient.newBuilder()
+                .connectTimeout(http.connectTimeout())
+                .version(http.version());
 
-        // Por defecto JdkClientHttpRequestFactory usa platform threads.
+        // Por defecto HttpClient usa platform threads.
         // Usamos el Executor de Virtual Threads.
         // Pero esto solo lo hacemos cuando la property para usar virtual threads está a true.
         if (isVirtualThreadEnabled) {
-            builder = builder.requestFactory(new JdkClientHttpRequestFactory(HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()));
+            httpClientBuilder = httpClientBuilder.executor(this.executor);
         }
 
-        return builder.build();
+        var requestFactory = new JdkClientHttpRequestFactory(httpClientBuilder.build());
+        requestFactory.setReadTimeout(http.readTimeout());
+
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .observationRegistry(this.observationRegistry)
+                .requestInterceptor(ServiceClientsConfig::propagateRequestContext)
+                .build();
+    }
+
+    // Pasamos el RequestContext de la petición a los proveedores como cabeceras.
+    // El interceptor se ejecuta en el thread que hace la llamada (una rama de FanOut, un hedge...), que ya tiene
+    // el contexto enlazado (ver RequestContextExecutorService).
+    // En vez del deadline enviamos el tiempo que queda, para no depender de que los relojes estén sincronizados.
+    // Usuario y tenant no se envían: vienen del cliente sin autenticar y el proveedor podría tomarlos por identidad.
+    private static ClientHttpResponse propagateRequestContext(HttpRequest request, byte[] body,
+                                                              ClientHttpRequestExecution execution) throws IOException {
+        var context = RequestContextHolder.getContext();
+        var headers = request.getHeaders();
+        if (context.requestId() != null) {
+            headers.set(RequestContext.REQUEST_ID_HEADER, context.requestId());
+        }
+        var remaining = context.remaining();
+        if (remaining != null) {
+            headers.set(RequestContext.TIMEOUT_HEADER, String.valueOf(remaining.toMillis()));
+        }
+        return execution.execute(request, body);
     }
 }
@@ -0,0 +1,48 @@
+package com.jmunoz.trip_advisor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+// Properties con prefijo service-clients (ver application.properties)
+// Configuración HTTP de los service clients.
+//   defaults: configuración que se aplica a todos los clientes.
+//   clients: configuración de un cliente concreto (accommodation, event, weather...). Lo que no se indique
+//            se toma de defaults.
+// keep-alive y max-streams no están aquí: el HttpClient de la JDK solo permite configurarlos para toda la JVM,
+// con system properties al arrancar (ver pom.xml y README).
+@ConfigurationProperties("service-clients")
+public record ServiceClientsProperties(Http defaults,
+                                       Map<String, Http> clients) {
+
+    private static final Http BUILT_IN = new Http(Duration.ofSeconds(1), Duration.ofSeconds(5), HttpClient.Version.HTTP_1_1);
+
+    public ServiceClientsProperties {
+        defaults = defaults == null ? BUILT_IN : defaults.orElse(BUILT_IN);
+        clients = clients == null ? Map.of() : Map.copyOf(clients);
+    }
+
+    public Http forClient(String name) {
+        var http = this.clients.get(name);
+        return http == null ? this.defaults : http.orElse(this.defaults);
+    }
+
+    //   connectTimeout: tiempo máximo para establecer la conexión.
+    //   readTimeout: tiempo máximo para recibir la respuesta.
+    //   version: HTTP_2 o HTTP_1_1. Con HTTP_2, si el servidor no lo soporta se usa HTTP/1.1.
+    // No usamos @DefaultValue: un campo a null significa "lo que diga defaults".
+    public record Http(Duration connectTimeout,
+                       Duration readTimeout,
+                       HttpClient.Version version) {
+
+        private Http orElse(Http defaults) {
+            return new Http(
+                    this.connectTimeout == null ? defaults.connectTimeout() : this.connectTimeout,
+                    this.readTimeout == null ? defaults.readTimeout() : this.readTimeout,
+                    this.version == null ? defaults.version() : this.version
+            );
+        }
+    }
+}
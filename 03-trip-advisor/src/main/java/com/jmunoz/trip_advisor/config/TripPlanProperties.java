@@ -0,0 +1,148 @@
+package com.jmunoz.trip_advisor.config;
+
+import com.jmunoz.trip_advisor.client.Provider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Properties con prefijo trip-plan (ver application.properties)
+//   deadline: tiempo máximo que esperamos por la petición completa.
+//   budgets: tiempo máximo que esperamos por cada proveedor. Si no se indica, se usa el deadline.
+//   hedging: configuración de las hedged requests (ver Hedger).
+//   coalescing: si está activo, las llamadas idénticas en curso a la vez a un proveedor se unen en una sola
+//               (ver SingleFlight). Por defecto activo.
+//   cache: configuración de la near-cache de cada proveedor. Si un proveedor no aparece, no se cachea.
+//   maxConcurrency: máximo de llamadas concurrentes a cada proveedor (contrato del proveedor). Si no aparece, sin límite.
+//   maxConcurrencyWait: tiempo máximo esperando un permit del límite fijo (bulkhead). Si no aparece, se espera
+//                       hasta que haya permit o se acabe el budget del proveedor.
+//   adaptiveConcurrency: límite de concurrencia adaptativo (ver AdaptiveLimiter). Si un proveedor aparece aquí,
+//                        se usa en vez del límite fijo, y maxConcurrency pasa a ser el máximo que puede alcanzar.
+//   circuitBreaker: circuit breaker de cada proveedor (ver CircuitBreaker). Si un proveedor no aparece, no tiene.
+//   bulk: configuración del endpoint POST /trip/plans.
+@ConfigurationProperties("trip-plan")
+public record TripPlanProperties(@DefaultValue("3s") Duration deadline,
+                                 Map<Provider, Duration> budgets,
+                                 @DefaultValue Hedging hedging,
+                                 @DefaultValue("true") boolean coalescing,
+                                 Map<Provider, Cache> cache,
+                                 Map<Provider, Integer> maxConcurrency,
+                                 Map<Provider, Duration> maxConcurrencyWait,
+                                 Map<Provider, AdaptiveConcurrency> adaptiveConcurrency,
+                                 Map<Provider, Circuit> circuitBreaker,
+                                 @DefaultValue Bulk bulk) {
+
+    public TripPlanProperties {
+        budgets = budgets == null ? Map.of() : Map.copyOf(budgets);
+        cache = cache == null ? Map.of() : Map.copyOf(cache);
+        maxConcurrency = maxConcurrency == null ? Map.of() : Map.copyOf(maxConcurrency);
+        maxConcurrencyWait = maxConcurrencyWait == null ? Map.of() : Map.copyOf(maxConcurrencyWait);
+        adaptiveConcurrency = adaptiveConcurrency == null ? Map.of() : Map.copyOf(adaptiveConcurrency);
+        circuitBreaker = circuitBreaker == null ? Map.of() : Map.copyOf(circuitBreaker);
+        // El máximo real del límite adaptativo es el menor entre max-limit y max-concurrency.
+        for (var entry : adaptiveConcurrency.entrySet()) {
+            var maxConcurrencyLimit = maxConcurrency.get(entry.getKey());
+            if (maxConcurrencyLimit != null && maxConcurrencyLimit < entry.getValue().minLimit()) {
+                var key = propertyKey(entry.getKey());
+                throw new IllegalArgumentException("trip-plan.adaptive-concurrency." + key + ".min-limit ("
+                        + entry.getValue().minLimit() + ") must not exceed trip-plan.max-concurrency." + key
+                        + " (" + maxConcurrencyLimit + ")");
+            }
+        }
+    }
+
+    public Duration budget(Provider provider) {
+        return this.budgets.getOrDefault(provider, this.deadline);
+    }
+
+    // LOCAL_RECOMMENDATIONS -> local-recommendations, como se escribe en application.properties.
+    private static String propertyKey(Provider provider) {
+        return provider.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    //   providers: proveedores con hedging habilitado (opt-in). Por defecto ninguno.
+    //   percentile: si no hay respuesta al llegar a este percentil de la latencia observada, lanzamos el hedge.
+    //   maxExtraLoad: máximo de carga extra que puede generar el hedging (0.05 = 5%).
+    //   minSamples: muestras necesarias en el histograma antes de empezar a hacer hedging.
+    //   window: ventana de tiempo del histograma de latencias.
+    public record Hedging(Set<Provider> providers,
+                          @DefaultValue("0.95") double percentile,
+                          @DefaultValue("0.05") double maxExtraLoad,
+                          @DefaultValue("100") long minSamples,
+                          @DefaultValue("30s") Duration window) {
+
+        public Hedging {
+            providers = providers == null ? Set.of() : Set.copyOf(providers);
+        }
+    }
+
+    //   ttl: tiempo durante el que la entrada es fresca. Por defecto 5 minutos.
+    //   staleWhileRevalidate: tiempo extra durante el que servimos la entrada caducada mientras se refresca.
+    //   maxSize: número máximo de aeropuertos en caché (LRU).
+    public record Cache(@DefaultValue("5m") Duration ttl,
+                        @DefaultValue("1m") Duration staleWhileRevalidate,
+                        @DefaultValue("1000") int maxSize) {
+
+        public Cache {
+            if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("trip-plan.cache.<provider>.ttl must be positive: " + ttl);
+            }
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("trip-plan.cache.<provider>.max-size must be at least 1: " + maxSize);
+            }
+        }
+    }
+
+    //   initialLimit / minLimit / maxLimit: límite inicial y rango en el que se puede mover.
+    //   backoffRatio: factor por el que se multiplica el límite ante un error o una llamada lenta.
+    //   slowCallThreshold: a partir de esta latencia una respuesta correcta cuenta como lenta.
+    //   maxQueue: máximo de llamadas esperando un permit. Si se llena, se rechazan.
+    //   maxWait: tiempo máximo esperando un permit.
+    public record AdaptiveConcurrency(@DefaultValue("20") int initialLimit,
+                                      @DefaultValue("1") int minLimit,
+                                      @DefaultValue("200") int maxLimit,
+                                      @DefaultValue("0.9") double backoffRatio,
+                                      @DefaultValue("1s") Duration slowCallThreshold,
+                                      @DefaultValue("100") int maxQueue,
+                                      @DefaultValue("500ms") Duration maxWait) {
+
+        public AdaptiveConcurrency {
+            if (minLimit < 1 || minLimit > maxLimit) {
+                throw new IllegalArgumentException("trip-plan.adaptive-concurrency.<provider>: min-limit (" + minLimit
+                        + ") must be at least 1 and not exceed max-limit (" + maxLimit + ")");
+            }
+        }
+    }
+
+    //   windowSize: número de llamadas de la ventana deslizante.
+    //   minCalls: llamadas necesarias en la ventana antes de poder abrir el circuito.
+    //   failureRateThreshold: proporción de errores a partir de la que se abre (0.5 = 50%).
+    //   slowCallRateThreshold: proporción de llamadas lentas a partir de la que se abre.
+    //   slowCallThreshold: a partir de esta latencia una llamada cuenta como lenta. Debe ser menor que el budget
+    //                      del proveedor: una llamada cancelada por el budget solo cuenta si ya lo había superado.
+    //   openDuration: tiempo que el circuito está abierto antes de dejar pasar llamadas de prueba.
+    //   halfOpenCalls: llamadas de prueba para decidir si se cierra o se vuelve a abrir.
+    public record Circuit(@DefaultValue("20") int windowSize,
+                          @DefaultValue("10") int minCalls,
+                          @DefaultValue("0.5") double failureRateThreshold,
+                          @DefaultValue("0.8") double slowCallRateThreshold,
+                          @DefaultValue("1s") Duration slowCallThreshold,
+                          @DefaultValue("10s") Duration openDuration,
+                          @DefaultValue("3") int halfOpenCalls) {
+
+        public Circuit {
+            if (windowSize < 1 || halfOpenCalls < 1) {
+                throw new IllegalArgumentException("trip-plan.circuit-breaker.<provider>.window-size and half-open-calls must be at least 1");
+            }
+        }
+    }
+
+    //   maxInFlight: máximo de aeropuertos que se planifican a la vez en una misma petición.
+    //   maxCodes: máximo de aeropuertos (distintos) por petición.
+    public record Bulk(@DefaultValue("64") int maxInFlight,
+                       @DefaultValue("100000") int maxCodes) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.jmunoz.trip_advisor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Properties con prefijo trip-reservation (ver application.properties)
+// Solo se usan en la búsqueda multi-ruta (ver TripReservationService.reserveBestDeal())
+//   nearbyAirports: aeropuertos cercanos a uno dado (incluido él mismo). Si no aparece, solo se usa el propio aeropuerto.
+//   flexibleDays: buscamos el mejor vuelo dentro de la fecha pedida +- estos días.
+//   searchDeadline: tiempo máximo que esperamos a las búsquedas. Lo que no llegue a tiempo se cancela.
+//   candidates: número de mejores vuelos que guardamos (top-K). Si falla la reserva del mejor, probamos el siguiente.
+//               Al menos 1.
+@ConfigurationProperties("trip-reservation")
+public record TripReservationProperties(Map<String, List<String>> nearbyAirports,
+                                        @DefaultValue("1") int flexibleDays,
+                                        @DefaultValue("3s") Duration searchDeadline,
+                                        @DefaultValue("3") int candidates) {
+
+    public TripReservationProperties {
+        // Con 0 candidatos no habría ningún vuelo que reservar.
+        if (candidates < 1) {
+            throw new IllegalArgumentException("trip-reservation.candidates must be at least 1: " + candidates);
+        }
+        // Normalizamos las claves a mayúsculas para no depender de cómo se escriban en las properties.
+        var airports = new HashMap<String, List<String>>();
+        if (nearbyAirports != null) {
+            nearbyAirports.forEach((code, nearby) -> airports.put(code.toUpperCase(Locale.ROOT), List.copyOf(nearby)));
+        }
+        nearbyAirports = Map.copyOf(airports);
+    }
+
+    public List<String> nearbyAirports(String airportCode) {
+        return this.nearbyAirports.getOrDefault(airportCode.toUpperCase(Locale.ROOT), List.of(airportCode));
+    }
+}
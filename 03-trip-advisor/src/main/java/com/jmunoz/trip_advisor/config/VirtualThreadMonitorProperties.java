@@ -0,0 +1,22 @@
+package com.jmunoz.trip_advisor.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// Properties con prefijo virtual-thread-monitor (ver application.properties)
+//   enabled: arranca el monitor de JFR (ver VirtualThreadMonitor).
+//   pinnedThreshold: solo registramos los pinning que duran más que esto (el valor por defecto de JFR es 20ms).
+//   trackLifecycle: cuenta también jdk.VirtualThreadStart / jdk.VirtualThreadEnd. Son un evento por cada virtual
+//                   thread, así que por defecto no lo activamos. Sin ellos no hay métricas de virtual threads vivos
+//                   ni aparcados.
+//   stackDepth: frames de la pila que usamos para agrupar los pinning.
+//   maxStacks: máximo de pilas distintas que guardamos. El resto se agrupan en "other".
+@ConfigurationProperties("virtual-thread-monitor")
+public record VirtualThreadMonitorProperties(@DefaultValue("true") boolean enabled,
+                                             @DefaultValue("20ms") Duration pinnedThreshold,
+                                             @DefaultValue("false") boolean trackLifecycle,
+                                             @DefaultValue("8") int stackDepth,
+                                             @DefaultValue("100") int maxStacks) {
+}
@@ -0,0 +1,64 @@
+package com.jmunoz.trip_advisor.context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+// Datos de la petición que necesitan las tareas hijas (fan-out, hedging, near-cache...), los service clients
+// (cabeceras hacia los proveedores) y el log.
+//
+//   requestId: X-Request-Id de la petición o uno nuevo si no viene.
+//   user / tenant: X-User-Id / X-Tenant-Id. null si no vienen.
+//                  Los envía el cliente y nadie los autentica: solo sirven para correlacionar (log, trazas).
+//                  No se usan como identidad ni se reenvían a los proveedores.
+//   deadline: momento a partir del cual la respuesta ya no sirve al cliente (X-Request-Timeout, en ms).
+//             null si no viene. FanOut nunca espera más allá de este deadline.
+//             Nunca menos de MIN_TIMEOUT (un X-Request-Timeout: 0 no puede dejar sin tiempo a todas las ramas)
+//             ni más de MAX_TIMEOUT.
+public record RequestContext(String requestId,
+                             String user,
+                             String tenant,
+                             Instant deadline) {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String USER_HEADER = "X-User-Id";
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    public static final Duration MIN_TIMEOUT = Duration.ofMillis(100);
+    // Con un valor enorme (Long.MAX_VALUE) plusMillis() lanzaría una excepción. Nadie espera más de 10 minutos.
+    public static final Duration MAX_TIMEOUT = Duration.ofMinutes(10);
+
+    static final RequestContext EMPTY = new RequestContext(null, null, null, null);
+
+    // A partir de las cabeceras de la petición (cualquiera puede ser null).
+    // Un X-Request-Timeout que no es un número se ignora. Si no, queda entre MIN_TIMEOUT y MAX_TIMEOUT.
+    public static RequestContext of(String requestId, String user, String tenant, String timeoutMillis) {
+        return new RequestContext(
+                requestId == null || requestId.isBlank() ? UUID.randomUUID().toString() : requestId,
+                user,
+                tenant,
+                deadline(timeoutMillis)
+        );
+    }
+
+    private static Instant deadline(String timeoutMillis) {
+        if (timeoutMillis == null) {
+            return null;
+        }
+        try {
+            return Instant.now().plusMillis(Math.clamp(Long.parseLong(timeoutMillis.trim()), MIN_TIMEOUT.toMillis(), MAX_TIMEOUT.toMillis()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Tiempo que queda hasta el deadline (nunca negativo). null si no hay deadline.
+    public Duration remaining() {
+        if (this.deadline == null) {
+            return null;
+        }
+        var remaining = Duration.between(Instant.now(), this.deadline);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
@@ -0,0 +1,57 @@
+package com.jmunoz.trip_advisor.context;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Decorador del ExecutorService: cada tarea se ejecuta con el RequestContext del thread que la envió.
+//
+// AbstractExecutorService crea el FutureTask en submit() y nos lo pasa en execute(), así que solo tenemos que
+// envolver execute(). cancel(true) sigue interrumpiendo el thread que ejecuta la tarea.
+//
+// Capturar el contexto es leer una referencia, y enlazarlo es un ScopedValue.where(): no hay ningún mapa que
+// copiar y limpiar por tarea, como pasa al propagar ThreadLocals (MDC).
+public class RequestContextExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    public RequestContextExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!RequestContextHolder.isBound()) {
+            this.delegate.execute(command);
+            return;
+        }
+        var context = RequestContextHolder.getContext();
+        this.delegate.execute(() -> RequestContextHolder.run(context, command));
+    }
+
+    @Override
+    public void shutdown() {
+        this.delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.delegate.awaitTermination(timeout, unit);
+    }
+}
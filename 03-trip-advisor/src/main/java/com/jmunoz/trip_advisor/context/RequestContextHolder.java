@@ -0,0 +1,35 @@
+package com.jmunoz.trip_advisor.context;
+
+// Mismo enfoque que sec09/security/scopedvalue/SecurityContextHolder, pero para el contexto de la petición.
+//
+// El ScopedValue se enlaza en TripController y vale para todo lo que se ejecute dentro de where(...).call(...).
+// Los ScopedValue solo los heredan solos los threads de un StructuredTaskScope. Nosotros enviamos las tareas a un
+// ExecutorService, así que RequestContextExecutorService captura el contexto al enviar la tarea y lo vuelve
+// a enlazar en el thread que la ejecuta. No se copia nada: es la misma instancia (inmutable).
+public class RequestContextHolder {
+
+    private static final ScopedValue<RequestContext> CONTEXT = ScopedValue.newInstance();
+
+    // package private
+    static ScopedValue<RequestContext> getScopedValue() {
+        return CONTEXT;
+    }
+
+    // Si no hay contexto enlazado (tareas en segundo plano, tests...), en vez de devolver null, devolvemos EMPTY.
+    public static RequestContext getContext() {
+        return CONTEXT.orElse(RequestContext.EMPTY);
+    }
+
+    public static boolean isBound() {
+        return CONTEXT.isBound();
+    }
+
+    // Ejecuta op con el contexto enlazado. Lanza las mismas excepciones que op.
+    public static <T, X extends Throwable> T call(RequestContext context, ScopedValue.CallableOp<? extends T, X> op) throws X {
+        return ScopedValue.where(CONTEXT, context).call(op);
+    }
+
+    public static void run(RequestContext context, Runnable runnable) {
+        ScopedValue.where(CONTEXT, context).run(runnable);
+    }
+}
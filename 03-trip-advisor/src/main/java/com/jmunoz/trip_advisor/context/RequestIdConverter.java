@@ -0,0 +1,16 @@
+package com.jmunoz.trip_advisor.context;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+// %requestId en el patrón de log (ver logback-spring.xml).
+// Lee el RequestContext del thread que escribe el log. No usamos el MDC (ThreadLocal), que habría que copiar
+// en cada tarea que enviamos al executor.
+public class RequestIdConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        var requestId = RequestContextHolder.getContext().requestId();
+        return requestId == null ? "-" : requestId;
+    }
+}
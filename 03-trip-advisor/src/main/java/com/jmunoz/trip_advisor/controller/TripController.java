@@ -1,14 +1,32 @@
 package com.jmunoz.trip_advisor.controller;
 
+import com.jmunoz.trip_advisor.context.RequestContext;
+import com.jmunoz.trip_advisor.context.RequestContextHolder;
 import com.jmunoz.trip_advisor.dto.FlightReservationResponse;
 import com.jmunoz.trip_advisor.dto.TripPlan;
+import com.jmunoz.trip_advisor.dto.TripPlanStreamSummary;
 import com.jmunoz.trip_advisor.dto.TripReservationRequest;
+import com.jmunoz.trip_advisor.service.BulkTripPlanService;
 import com.jmunoz.trip_advisor.service.TripPlanService;
 import com.jmunoz.trip_advisor.service.TripReservationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+// Cada endpoint enlaza el RequestContext de la petición (ScopedValue) antes de llamar al servicio.
+// Lo heredan todas las tareas que se envían al executor (ver RequestContextExecutorService), también las
+// respuestas en streaming, así que llega a todas las llamadas a los proveedores y al log.
 @RestController
 @RequestMapping("trip")
 public class TripController {
@@ -17,22 +35,116 @@ public class TripController {
 
     private final TripPlanService planService;
     private final TripReservationService reservationService;
+    private final BulkTripPlanService bulkPlanService;
+    // Para producir las respuestas en streaming sin bloquear el thread de la petición.
+    private final ExecutorService executor;
 
-    public TripController(TripPlanService planService, TripReservationService reservationService) {
+    public TripController(TripPlanService planService, TripReservationService reservationService,
+                          BulkTripPlanService bulkPlanService, ExecutorService executor) {
         this.planService = planService;
         this.reservationService = reservationService;
+        this.bulkPlanService = bulkPlanService;
+        this.executor = executor;
     }
 
     // En vez de TripPlan podríamos devolver un ResponseEntity<TripPlan> para hacerlo incluso mejor.
     @GetMapping("{airportCode}")
-    public TripPlan planTrip(@PathVariable String airportCode) {
+    public TripPlan planTrip(@PathVariable String airportCode, HttpServletRequest request) {
 //        log.info("airport code: {}, is Virtual: {}", airportCode, Thread.currentThread().isVirtual());
-        return this.planService.getTripPlan(airportCode);
+        return RequestContextHolder.call(requestContext(request), () -> this.planService.getTripPlan(airportCode));
+    }
+
+    // Versión en streaming (Server-Sent Events): cada sección del TripPlan se envía como un evento en cuanto su
+    // proveedor responde (event: weather, event: events...). El último evento (event: complete) indica qué
+    // secciones no han llegado a tiempo. Sin stack reactivo, solo un virtual thread que escribe.
+    // Si el cliente se va (o la conexión falla) interrumpimos ese thread: FanOut cancela las llamadas a los
+    // proveedores que queden, sin esperar al siguiente send() para enterarnos.
+    @GetMapping(value = "{airportCode}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTrip(@PathVariable String airportCode, HttpServletRequest request) {
+        var emitter = new SseEmitter(0L);
+        var task = RequestContextHolder.call(requestContext(request), () -> this.executor.submit(() -> {
+            try {
+                this.planService.streamTripPlan(airportCode, new TripPlanService.SectionSink() {
+                    @Override
+                    public void section(String name, Object value) throws IOException {
+                        emitter.send(SseEmitter.event().name(name).data(Objects.requireNonNullElse(value, ""), MediaType.APPLICATION_JSON));
+                    }
+
+                    @Override
+                    public void complete(TripPlanStreamSummary summary) throws IOException {
+                        emitter.send(SseEmitter.event().name("complete").data(summary, MediaType.APPLICATION_JSON));
+                    }
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }));
+        // Si ya ha terminado, cancel() no hace nada.
+        emitter.onCompletion(() -> task.cancel(true));
+        emitter.onTimeout(() -> task.cancel(true));
+        emitter.onError(e -> task.cancel(true));
+        return emitter;
+    }
+
+    // Para los procesos batch: recibe una lista de códigos de aeropuerto y devuelve los TripPlan como NDJSON
+    // (un JSON por línea) a medida que se van completando, sin esperar al batch entero.
+    // Timeout 0: sin timeout. Un batch grande puede tardar minutos.
+    // La lista se valida antes de devolver el emitter: si no, el error llegaría con un 200 ya enviado.
+    @PostMapping(value = "plans", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter planTrips(@RequestBody List<String> airportCodes, HttpServletRequest request) {
+        List<String> codes;
+        try {
+            codes = this.bulkPlanService.normalize(airportCodes);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        var emitter = new ResponseBodyEmitter(0L);
+        RequestContextHolder.run(requestContext(request), () -> this.executor.submit(() -> {
+            try {
+                this.bulkPlanService.planTrips(codes, tripPlan -> {
+                    emitter.send(tripPlan, MediaType.APPLICATION_JSON);
+                    emitter.send("\n", MediaType.TEXT_PLAIN);
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }));
+        return emitter;
     }
 
     // En vez de FlightReservationResponse podríamos devolver un ResponseEntity<FlightReservationResponse> para hacerlo incluso mejor.
     @PostMapping("reserve")
-    public FlightReservationResponse reserve(@RequestBody TripReservationRequest request) {
-        return this.reservationService.reserve(request);
+    public FlightReservationResponse reserve(@RequestBody TripReservationRequest request,
+                                             HttpServletRequest servletRequest) {
+        validate(request);
+        return RequestContextHolder.call(requestContext(servletRequest), () -> this.reservationService.reserve(request));
+    }
+
+    // Igual que reserve, pero busca el mejor precio entre aeropuertos cercanos y fechas +- N días (en paralelo).
+    @PostMapping("reserve/best-deal")
+    public FlightReservationResponse reserveBestDeal(@RequestBody TripReservationRequest request,
+                                                     HttpServletRequest servletRequest) {
+        validate(request);
+        return RequestContextHolder.call(requestContext(servletRequest), () -> this.reservationService.reserveBestDeal(request));
+    }
+
+    // Sin aeropuertos o sin fecha la petición no tiene sentido: 400 en vez de un NullPointerException (500).
+    private static void validate(TripReservationRequest request) {
+        if (request.departure() == null || request.departure().isBlank()
+                || request.arrival() == null || request.arrival().isBlank()
+                || request.date() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "departure, arrival and date are required");
+        }
+    }
+
+    private static RequestContext requestContext(HttpServletRequest request) {
+        return RequestContext.of(
+                request.getHeader(RequestContext.REQUEST_ID_HEADER),
+                request.getHeader(RequestContext.USER_HEADER),
+                request.getHeader(RequestContext.TENANT_HEADER),
+                request.getHeader(RequestContext.TIMEOUT_HEADER)
+        );
     }
 }
@@ -0,0 +1,10 @@
+package com.jmunoz.trip_advisor.dto;
+
+import java.util.List;
+
+// Último evento del streaming de un TripPlan (GET /trip/{airportCode}/stream).
+// Indica qué secciones no han llegado a tiempo y cuáles han fallado.
+public record TripPlanStreamSummary(String airportCode,
+                                    List<String> timedOut,
+                                    List<String> failed) {
+}
@@ -0,0 +1,188 @@
+package com.jmunoz.trip_advisor.fanout;
+
+import com.jmunoz.trip_advisor.context.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Motor de fan-out con deadline.
+// Es el equivalente a un StructuredTaskScope, pero construido sobre el ExecutorService que nos inyecta Spring,
+// para poder seguir comparando virtual threads y platform threads (ver ExecutorServiceConfig).
+// Además, StructuredTaskScope sigue en preview en Java 25.
+//
+//   - Todas las ramas (branches) comparten un deadline global, el de la petición. Si el cliente nos ha indicado
+//     su propio deadline (RequestContext), nunca esperamos más allá.
+//   - Cada rama puede tener su propio presupuesto de tiempo (budget), que nunca supera el deadline global.
+//   - Cuando vence el tiempo de una rama se cancela con cancel(true), es decir, se interrumpe el thread
+//     y la llamada HTTP en curso se aborta. No dejamos virtual threads trabajando para nadie.
+//   - Implementa AutoCloseable. Usándolo con try with resources, close() cancela las ramas que sigan en curso
+//     (por ejemplo, si la petición falla o se interrumpe antes de llamar a join())
+//   - join() procesa las ramas en el orden en el que terminan, no en el que se crearon. Así podemos entregar
+//     cada resultado en cuanto llega (ver TripPlanService.streamTripPlan()).
+//   - cancel() desde el listener de join() cancela las ramas que queden y join() vuelve sin esperarlas
+//     (por ejemplo, si el cliente se ha ido y ya no tenemos a quién entregar los resultados).
+//
+// No es thread safe. Se crea uno por petición y lo usa solo el thread de la petición.
+public class FanOut implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final long deadline;
+    private final List<Branch<?>> branches = new ArrayList<>();
+    // Cada rama se añade aquí cuando termina (bien o mal).
+    private final BlockingQueue<Branch<?>> completed = new LinkedBlockingQueue<>();
+    private boolean cancelled;
+
+    public FanOut(ExecutorService executor, Duration timeout) {
+        this.executor = executor;
+        var remaining = RequestContextHolder.getContext().remaining();
+        this.deadline = deadlineAfter(remaining == null || remaining.compareTo(timeout) > 0 ? timeout : remaining);
+    }
+
+    // Sometemos la tarea al executor. El budget se empieza a contar desde este momento.
+    public <T> Branch<T> fork(String name, Duration budget, Callable<T> task) {
+        var branch = new Branch<T>(name, Math.min(this.deadline, deadlineAfter(budget)));
+        branch.future = this.executor.submit(() -> {
+            try {
+                return task.call();
+            } finally {
+                this.completed.add(branch);
+            }
+        });
+        this.branches.add(branch);
+        return branch;
+    }
+
+    // Espera a que terminen todas las ramas o a que venza su tiempo.
+    // Lo máximo que esperamos es el deadline global.
+    public void join() {
+        join(branch -> {});
+    }
+
+    // Igual que join(), pero avisa al listener de cada rama en cuanto termina, falla o vence su tiempo.
+    // El listener se ejecuta siempre en el thread que llama a join().
+    // Si el thread que espera es interrumpido, cancelamos todas las ramas y mantenemos el flag de interrupción.
+    public void join(Consumer<Branch<?>> listener) {
+        var pending = new ArrayList<Branch<?>>();
+        this.branches.stream().filter(branch -> branch.state == Branch.State.RUNNING).forEach(pending::add);
+        try {
+            while (!pending.isEmpty() && !this.cancelled) {
+                var nextDeadline = pending.stream().mapToLong(branch -> branch.deadline).min().orElseThrow();
+                var branch = this.completed.poll(Math.max(0, nextDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (branch != null) {
+                    if (pending.remove(branch)) {
+                        // La tarea ya ha terminado. El resultado estará disponible enseguida.
+                        branch.await(true);
+                        listener.accept(branch);
+                    }
+                    continue;
+                }
+                // Ha vencido el tiempo de alguna rama.
+                var now = System.nanoTime();
+                var expired = pending.stream().filter(b -> b.deadline - now <= 0).toList();
+                for (var b : expired) {
+                    if (this.cancelled) {
+                        break;
+                    }
+                    pending.remove(b);
+                    b.await(false);
+                    listener.accept(b);
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Cancela las ramas que sigan en curso. Si se llama desde el listener, join() vuelve sin esperar al resto.
+    public void cancel() {
+        this.cancelled = true;
+        cancelAll();
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        this.branches.forEach(Branch::cancel);
+    }
+
+    // Evitamos el overflow si nos pasan una duración enorme.
+    private static long deadlineAfter(Duration duration) {
+        var now = System.nanoTime();
+        var nanos = duration.compareTo(Duration.ofDays(1)) > 0 ? Duration.ofDays(1).toNanos() : duration.toNanos();
+        return now + nanos;
+    }
+
+    public static final class Branch<T> {
+
+        public enum State {
+            RUNNING,
+            SUCCESS,
+            FAILED,
+            TIMEOUT,
+            CANCELLED
+        }
+
+        private final String name;
+        private final long deadline;
+        private Future<T> future;
+        private State state = State.RUNNING;
+        private T value;
+        private Throwable exception;
+
+        private Branch(String name, long deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+
+        private void await(boolean finished) throws InterruptedException {
+            if (this.state != State.RUNNING) {
+                return;
+            }
+            try {
+                this.value = finished
+                        ? this.future.get()
+                        : this.future.get(Math.max(0, this.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                this.state = State.SUCCESS;
+            } catch (TimeoutException e) {
+                // Ya no nos sirve el resultado. Interrumpimos la llamada en curso.
+                this.future.cancel(true);
+                this.state = State.TIMEOUT;
+            } catch (ExecutionException e) {
+                this.exception = e.getCause();
+                this.state = State.FAILED;
+            } catch (CancellationException e) {
+                this.state = State.CANCELLED;
+            }
+        }
+
+        private void cancel() {
+            if (this.state == State.RUNNING && this.future.cancel(true)) {
+                this.state = State.CANCELLED;
+            }
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public State state() {
+            return this.state;
+        }
+
+        public Throwable exception() {
+            return this.exception;
+        }
+
+        // Si la rama no terminó bien (error, timeout, cancelada) devolvemos el valor por defecto.
+        public T getOrElse(T defaultValue) {
+            return this.state == State.SUCCESS ? this.value : defaultValue;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.jmunoz.trip_advisor.hedging;
+
+// Presupuesto de hedging (token bucket).
+// Cada petición primaria añade `ratio` tokens y cada hedge consume un token entero.
+// Con ratio = 0.05 nunca enviamos más de un 5% de peticiones extra al proveedor, aunque esté caído y
+// todas las llamadas superen el umbral. Así el hedging no puede amplificar una caída.
+// `maxTokens` limita las ráfagas después de un periodo tranquilo.
+public class HedgeBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public HedgeBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+    }
+
+    public synchronized void onRequest() {
+        this.tokens = Math.min(this.maxTokens, this.tokens + this.ratio);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (this.tokens < 1) {
+            return false;
+        }
+        this.tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package com.jmunoz.trip_advisor.hedging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hedged requests para un cliente (proveedor).
+// Es el patrón anyOf() que vimos en sec08/Lec07AnyOf, pero llevado a producción:
+//   - Lanzamos la petición primaria.
+//   - Si no ha respondido cuando llega el percentil configurado (p95 por defecto) de las latencias observadas,
+//     lanzamos una segunda petición idéntica (hedge).
+//   - Nos quedamos con la primera que responda bien y cancelamos la otra (cancel(true) interrumpe la llamada HTTP).
+//
+// El umbral se adapta solo porque sale de un histograma en vivo (LatencyHistogram).
+// En el histograma guardamos una muestra por llamada a call(), de principio a fin y termine como termine: con la
+// respuesta del ganador, con error o cancelada (deadline de FanOut), en cuyo caso cuenta lo que llevaba esperando.
+// Si guardáramos cada intento por separado, o solo los que terminan bien, las llamadas lentas canceladas y los
+// timeouts no contarían nunca: el percentil bajaría, habría más hedges, y vuelta a empezar.
+// El número de hedges está limitado por HedgeBudget, para no amplificar una caída del proveedor.
+public class Hedger {
+
+    private static final Logger log = LoggerFactory.getLogger(Hedger.class);
+
+    private final String name;
+    private final ExecutorService executor;
+    private final LatencyHistogram histogram;
+    private final HedgeBudget budget;
+    private final double percentile;
+    private final long minSamples;
+
+    public Hedger(String name, ExecutorService executor, LatencyHistogram histogram, HedgeBudget budget,
+                  double percentile, long minSamples) {
+        this.name = name;
+        this.executor = executor;
+        this.histogram = histogram;
+        this.budget = budget;
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+    }
+
+    public <T> T call(Callable<T> callable) throws Exception {
+        this.budget.onRequest();
+        var start = System.nanoTime();
+        try {
+            return hedge(callable);
+        } finally {
+            this.histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T hedge(Callable<T> callable) throws Exception {
+        // Mientras no tengamos suficientes muestras no sabemos cuál es una latencia "lenta".
+        // Hacemos la llamada directamente en el thread actual, sin hedging.
+        if (this.histogram.count() < this.minSamples) {
+            return callable.call();
+        }
+
+        var threshold = this.histogram.percentile(this.percentile);
+        var race = new Race<>(callable);
+        try {
+            race.start();
+            try {
+                return race.result.get(threshold, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!race.result.isDone() && this.budget.tryAcquire()) {
+                    log.debug("{}: no response after {} ms, sending hedged request", this.name, threshold / 1_000_000);
+                    race.start();
+                }
+            }
+            return race.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            // Cancelamos el perdedor. Si nos han interrumpido (deadline de FanOut), cancelamos las dos.
+            race.cancel();
+        }
+    }
+
+    // Una "carrera" entre la petición primaria y el hedge.
+    // Gana la primera que termina bien. Solo falla si fallan todas las peticiones lanzadas.
+    private final class Race<T> {
+
+        private final Callable<T> callable;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<Future<?>> attempts = new ArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Race(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        private void start() {
+            this.pending.incrementAndGet();
+            this.attempts.add(executor.submit(() -> {
+                try {
+                    this.result.complete(this.callable.call());
+                } catch (Exception e) {
+                    if (this.pending.decrementAndGet() == 0) {
+                        this.result.completeExceptionally(e);
+                    }
+                }
+            }));
+        }
+
+        private void cancel() {
+            this.attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
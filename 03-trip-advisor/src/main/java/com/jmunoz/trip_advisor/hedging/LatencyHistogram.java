@@ -0,0 +1,114 @@
+package com.jmunoz.trip_advisor.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de latencias en vivo, con buckets de tamaño exponencial (cada bucket es un 25% mayor que el anterior)
+// desde 0.1 ms hasta algo más de 60 sg.
+//
+// Para que se adapte a los cambios del proveedor, solo recordamos dos ventanas de tiempo: la actual y la anterior.
+// Cuando la ventana actual caduca, pasa a ser la anterior y empezamos una nueva vacía.
+// Los percentiles se calculan con las dos ventanas juntas, así nunca nos quedamos sin muestras de golpe.
+//
+// Es thread safe y no usa locks al registrar una latencia (solo contadores atómicos).
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS = buildBounds();
+
+    private final long windowNanos;
+    private volatile Window current;
+    private volatile Window previous;
+
+    public LatencyHistogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+        this.current = new Window(System.nanoTime());
+        this.previous = new Window(System.nanoTime());
+    }
+
+    public void record(long latencyNanos) {
+        rotateIfNeeded();
+        this.current.record(bucketOf(latencyNanos));
+    }
+
+    public long count() {
+        rotateIfNeeded();
+        return this.current.total.get() + this.previous.total.get();
+    }
+
+    // Devuelve el límite superior (en nanos) del bucket donde cae el percentil indicado (0.95 = p95).
+    public long percentile(double percentile) {
+        rotateIfNeeded();
+        var current = this.current;
+        var previous = this.previous;
+        var total = current.total.get() + previous.total.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        var target = (long) Math.ceil(total * percentile);
+        var accumulated = 0L;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            accumulated += current.counts.get(i) + previous.counts.get(i);
+            if (accumulated >= target) {
+                return BOUNDS[i];
+            }
+        }
+
+        return BOUNDS[BOUNDS.length - 1];
+    }
+
+    private void rotateIfNeeded() {
+        if (System.nanoTime() - this.current.start < this.windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            var now = System.nanoTime();
+            if (now - this.current.start >= this.windowNanos) {
+                this.previous = this.current;
+                this.current = new Window(now);
+            }
+        }
+    }
+
+    private static int bucketOf(long latencyNanos) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (latencyNanos <= BOUNDS[i]) {
+                return i;
+            }
+        }
+
+        return BOUNDS.length - 1;
+    }
+
+    private static long[] buildBounds() {
+        var count = 0;
+        for (double bound = 100_000; bound < 60_000_000_000L; bound *= 1.25) {
+            count++;
+        }
+
+        var bounds = new long[count + 1];
+        double bound = 100_000;
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = (long) bound;
+            bound *= 1.25;
+        }
+
+        return bounds;
+    }
+
+    private static final class Window {
+
+        private final long start;
+        private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length);
+        private final AtomicLong total = new AtomicLong();
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private void record(int bucket) {
+            this.counts.incrementAndGet(bucket);
+            this.total.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.jmunoz.trip_advisor.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Límite de concurrencia adaptativo (AIMD, como el control de congestión de TCP).
+// Un límite fijo o es demasiado bajo (desperdiciamos throughput) o demasiado alto (tumbamos al proveedor).
+// Este limitador busca solo el punto de equilibrio a partir de la latencia y los errores observados:
+//
+//   - Additive increase: cada respuesta buena y rápida suma 1/limit al límite, es decir, +1 por cada
+//     `limit` respuestas. Solo si estamos usando al menos la mitad del límite; si no, no sabemos si el
+//     proveedor aguantaría más.
+//   - Multiplicative decrease: un error o una respuesta más lenta que `slowCallThreshold` multiplica el
+//     límite por `backoffRatio` (0.9 por defecto). Las llamadas que empezaron antes de la última bajada no
+//     vuelven a bajarlo, para que una ráfaga de errores no lo hunda hasta el mínimo de golpe.
+//
+// Si no hay permit libre, la llamada espera en una cola limitada (`maxQueue`) como mucho `maxWait`.
+// Si la cola está llena o se acaba la espera, lanzamos LimitExceededException.
+//
+// Usamos ReentrantLock y Condition (ver sec05) en vez de un Semaphore porque el límite cambia en tiempo real.
+public class AdaptiveLimiter implements Limiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+    // Protegidos por lock.
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long lastDecrease = System.nanoTime();
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                           Duration slowCallThreshold, int maxQueue, Duration maxWait) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException(name + ": minLimit (" + minLimit + ") must be at least 1 and not exceed maxLimit (" + maxLimit + ")");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    public <T> T execute(Callable<T> callable) throws Exception {
+        acquire();
+        var start = System.nanoTime();
+        var signal = Signal.IGNORE;
+        try {
+            var value = callable.call();
+            signal = System.nanoTime() - start <= this.slowCallNanos ? Signal.GOOD : Signal.DROP;
+            return value;
+        } catch (Exception e) {
+            // Si nos han cancelado (deadline de FanOut) el error no dice nada del proveedor.
+            // Ojo: RestClient envuelve la interrupción en otra excepción, por eso miramos el flag.
+            if (!(e instanceof InterruptedException) && !Thread.currentThread().isInterrupted()) {
+                signal = Signal.DROP;
+            }
+            throw e;
+        } finally {
+            release(start, signal);
+        }
+    }
+
+    @Override
+    public int limit() {
+        this.lock.lock();
+        try {
+            return (int) this.limit;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int inFlight() {
+        this.lock.lock();
+        try {
+            return this.inFlight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        this.lock.lock();
+        try {
+            return this.waiting;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long rejected() {
+        return this.rejected.sum();
+    }
+
+    private void acquire() throws InterruptedException {
+        this.lock.lock();
+        try {
+            if (this.inFlight < (int) this.limit) {
+                this.inFlight++;
+                return;
+            }
+            if (this.waiting >= this.maxQueue) {
+                this.rejected.increment();
+                throw new LimitExceededException(this.name + ": queue is full (" + this.maxQueue + ")");
+            }
+            this.waiting++;
+            try {
+                var nanos = this.maxWaitNanos;
+                while (this.inFlight >= (int) this.limit) {
+                    if (nanos <= 0) {
+                        this.rejected.increment();
+                        throw new LimitExceededException(this.name + ": no permit after " + Duration.ofNanos(this.maxWaitNanos).toMillis() + " ms");
+                    }
+                    // awaitNanos() es interrumpible: si FanOut cancela la rama, deja de esperar.
+                    nanos = this.available.awaitNanos(nanos);
+                }
+                this.inFlight++;
+            } finally {
+                this.waiting--;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void release(long start, Signal signal) {
+        this.lock.lock();
+        try {
+            var previous = (int) this.limit;
+            if (signal == Signal.GOOD) {
+                if (this.inFlight * 2 >= this.limit) {
+                    this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+                }
+            } else if (signal == Signal.DROP && start - this.lastDecrease > 0) {
+                this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+                this.lastDecrease = System.nanoTime();
+            }
+            this.inFlight--;
+
+            var current = (int) this.limit;
+            if (current != previous) {
+                log.debug("{}: limit {} -> {}", this.name, previous, current);
+            }
+            // Pueden entrar tantas llamadas como permits libres haya (si ha subido el límite, más de una).
+            for (int i = this.inFlight; i < current; i++) {
+                this.available.signal();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Qué nos dice cada llamada sobre el proveedor.
+    //   GOOD: respuesta correcta y rápida. DROP: error o respuesta lenta. IGNORE: llamada cancelada.
+    private enum Signal {
+        GOOD,
+        DROP,
+        IGNORE
+    }
+}
@@ -0,0 +1,59 @@
+package com.jmunoz.trip_advisor.limit;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Límite fijo de llamadas concurrentes usando un semáforo (ver sec07/Lec06ConcurrencyLimitWithSemaphore).
+// acquire() es interrumpible: si FanOut cancela la rama mientras espera, deja de esperar.
+//
+// Con maxWait funciona como bulkhead: si en ese tiempo no hay permit, fallamos (LimitExceededException)
+// en vez de acumular virtual threads esperando a un proveedor que no da abasto.
+// Sin maxWait (null) se espera hasta que haya permit o se cancele la rama.
+public class FixedLimiter implements Limiter {
+
+    private final String name;
+    private final int limit;
+    private final Duration maxWait;
+    private final Semaphore semaphore;
+
+    public FixedLimiter(int limit) {
+        this("limiter", limit, null);
+    }
+
+    public FixedLimiter(String name, int limit, Duration maxWait) {
+        this.name = name;
+        this.limit = limit;
+        this.maxWait = maxWait;
+        this.semaphore = new Semaphore(limit);
+    }
+
+    @Override
+    public <T> T execute(Callable<T> callable) throws Exception {
+        acquire();
+        try {
+            return callable.call();
+        } finally {
+            this.semaphore.release();
+        }
+    }
+
+    private void acquire() throws InterruptedException {
+        if (this.maxWait == null) {
+            this.semaphore.acquire();
+        } else if (!this.semaphore.tryAcquire(this.maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new LimitExceededException(this.name + ": no permit after " + this.maxWait.toMillis() + " ms");
+        }
+    }
+
+    @Override
+    public int limit() {
+        return this.limit;
+    }
+
+    @Override
+    public int inFlight() {
+        return this.limit - this.semaphore.availablePermits();
+    }
+}
@@ -0,0 +1,10 @@
+package com.jmunoz.trip_advisor.limit;
+
+// El limitador no ha podido darnos un permit: la cola de espera está llena o hemos esperado demasiado.
+// Es mejor fallar rápido (y devolver el fallback) que seguir acumulando peticiones contra un proveedor saturado.
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
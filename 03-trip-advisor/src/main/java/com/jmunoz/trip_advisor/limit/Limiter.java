@@ -0,0 +1,15 @@
+package com.jmunoz.trip_advisor.limit;
+
+import java.util.concurrent.Callable;
+
+// Limita la concurrencia de las llamadas a un proveedor.
+// Es el mismo objetivo que ConcurrencyLimiter en el playground (sec07), pero aquí no creamos threads:
+// el thread que llama (normalmente un virtual thread) espera su permit y ejecuta él mismo la llamada.
+public interface Limiter {
+
+    <T> T execute(Callable<T> callable) throws Exception;
+
+    int limit();
+
+    int inFlight();
+}
@@ -0,0 +1,11 @@
+package com.jmunoz.trip_advisor.monitor;
+
+import java.util.List;
+
+// Pinning agrupados por pila: cuántas veces y cuánto tiempo ha estado fijado (pinned) un virtual thread a su
+// carrier en este punto del código.
+public record PinnedStack(List<String> frames,
+                          long count,
+                          double totalMillis,
+                          double maxMillis) {
+}
@@ -0,0 +1,37 @@
+package com.jmunoz.trip_advisor.monitor;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET    /actuator/pinning  -> pinning agrupados por pila, de más a menos tiempo.
+// DELETE /actuator/pinning  -> vacía las pilas (por ejemplo, antes de una prueba de carga).
+@Component
+@Endpoint(id = "pinning")
+public class PinningEndpoint {
+
+    private final VirtualThreadMonitor monitor;
+
+    public PinningEndpoint(VirtualThreadMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pinning() {
+        var result = new LinkedHashMap<String, Object>();
+        result.put("running", this.monitor.isRunning());
+        result.put("pinnedEvents", this.monitor.pinnedEvents());
+        result.put("submitFailed", this.monitor.submitFailed());
+        result.put("stacks", this.monitor.pinnedStacks());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        this.monitor.reset();
+    }
+}
@@ -0,0 +1,189 @@
+package com.jmunoz.trip_advisor.monitor;
+
+import com.jmunoz.trip_advisor.config.VirtualThreadMonitorProperties;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Monitor de virtual threads con JFR en streaming, dentro de la propia aplicación.
+// Es lo que hacíamos con -Djdk.tracePinnedThreads=full (ver Migration Guide), pero siempre activo y sin
+// tener que buscar en los logs:
+//
+//   - jdk.VirtualThreadPinned: un virtual thread ha bloqueado sin poder soltar su carrier (pinning).
+//     Los agrupamos por pila para saber qué código (nuestro o de una librería) lo provoca.
+//   - jdk.VirtualThreadSubmitFailed: no se ha podido arrancar o continuar un virtual thread.
+//   - jdk.VirtualThreadStart / jdk.VirtualThreadEnd: opcional (virtual-thread-monitor.track-lifecycle).
+//
+// Se ve en /actuator/pinning y en las métricas jvm.threads.virtual.* (ver MetricsConfig).
+// Con track-lifecycle también sabemos cuántos virtual threads están vivos y, restando los montados y los que
+// esperan carrier, cuántos están aparcados (jvm.threads.virtual.parked). La JDK no da ese número directamente.
+@Component
+public class VirtualThreadMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private static final String OTHER = "other";
+
+    private final VirtualThreadMonitorProperties properties;
+    private final Map<String, Stats> pinned = new ConcurrentHashMap<>();
+    // Totales para las métricas. No se ven afectados por reset().
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final LongAdder submitFailed = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder ended = new LongAdder();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadMonitor(VirtualThreadMonitorProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!this.properties.enabled()) {
+            return;
+        }
+        var stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(this.properties.pinnedThreshold()).withStackTrace();
+        stream.enable("jdk.VirtualThreadSubmitFailed").withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.onEvent("jdk.VirtualThreadSubmitFailed", event -> {
+            this.submitFailed.increment();
+            log.warn("virtual thread submit failed: {}", event);
+        });
+        if (this.properties.trackLifecycle()) {
+            stream.enable("jdk.VirtualThreadStart");
+            stream.enable("jdk.VirtualThreadEnd");
+            stream.onEvent("jdk.VirtualThreadStart", event -> this.started.increment());
+            stream.onEvent("jdk.VirtualThreadEnd", event -> this.ended.increment());
+        }
+        // Los eventos se procesan en un thread propio de JFR.
+        stream.startAsync();
+        this.stream = stream;
+        log.info("virtual thread monitor started, pinned threshold: {}", this.properties.pinnedThreshold());
+    }
+
+    @Override
+    public void stop() {
+        var stream = this.stream;
+        if (stream != null) {
+            stream.close();
+            this.stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.stream != null;
+    }
+
+    // Ordenados por tiempo total pinned, de mayor a menor.
+    public List<PinnedStack> pinnedStacks() {
+        return this.pinned.entrySet().stream()
+                .map(entry -> entry.getValue().toPinnedStack(entry.getKey()))
+                .sorted(Comparator.comparingDouble(PinnedStack::totalMillis).reversed())
+                .toList();
+    }
+
+    // Vacía las pilas, no los contadores.
+    public void reset() {
+        this.pinned.clear();
+    }
+
+    public long pinnedEvents() {
+        return this.pinnedEvents.sum();
+    }
+
+    public double pinnedSeconds() {
+        return this.pinnedNanos.sum() / 1e9;
+    }
+
+    public long submitFailed() {
+        return this.submitFailed.sum();
+    }
+
+    public long started() {
+        return this.started.sum();
+    }
+
+    public long ended() {
+        return this.ended.sum();
+    }
+
+    // Solo con track-lifecycle contamos los virtual threads que arrancan y terminan.
+    public boolean tracksLifecycle() {
+        return this.properties.enabled() && this.properties.trackLifecycle();
+    }
+
+    // Virtual threads vivos (arrancados y no terminados) desde que arrancó el monitor.
+    // Los que ya existían antes no se ven, así que nunca devolvemos un valor negativo.
+    public long live() {
+        return Math.max(0, this.started.sum() - this.ended.sum());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        this.pinnedEvents.increment();
+        this.pinnedNanos.add(event.getDuration().toNanos());
+        var key = stackKey(event);
+        var stats = this.pinned.get(key);
+        if (stats == null) {
+            // Limitamos las pilas distintas para no crecer sin control.
+            if (this.pinned.size() >= this.properties.maxStacks()) {
+                key = OTHER;
+            }
+            stats = this.pinned.computeIfAbsent(key, k -> new Stats());
+        }
+        stats.record(event.getDuration().toNanos());
+    }
+
+    // Pila resumida, una línea por frame: clase.méto-do:línea
+    private String stackKey(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        var key = new StringBuilder();
+        var frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(frames.size(), this.properties.stackDepth()); i++) {
+            if (i > 0) {
+                key.append('\n');
+            }
+            key.append(format(frames.get(i)));
+        }
+        return key.toString();
+    }
+
+    private static String format(RecordedFrame frame) {
+        var method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName() + ":" + frame.getLineNumber();
+    }
+
+    private static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long maxNanos;
+
+        // Solo escribe el thread de JFR, así que maxNanos no necesita más sincronización.
+        private void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            if (nanos > this.maxNanos) {
+                this.maxNanos = nanos;
+            }
+        }
+
+        private PinnedStack toPinnedStack(String key) {
+            return new PinnedStack(List.of(key.split("\n")), this.count.sum(), this.totalNanos.sum() / 1e6, this.maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jmunoz.trip_advisor.service;
+
+import com.jmunoz.trip_advisor.config.TripPlanProperties;
+import com.jmunoz.trip_advisor.dto.TripPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Planificación de muchos aeropuertos en una sola petición (POST /trip/plans).
+//
+// Es la idea de Gatherers.mapConcurrent() (ver sec07/Lec08MapConcurrent) pero entregando cada TripPlan en
+// cuanto termina, sin respetar el orden de entrada: así no hay que retener resultados esperando a uno lento.
+//   - Quitamos los códigos repetidos.
+//   - Como mucho `maxInFlight` aeropuertos a la vez (semáforo). La memoria queda plana aunque lleguen 100k códigos.
+//   - El límite por proveedor lo aplica PlanningServiceGateway y es global para toda la aplicación.
+@Service
+public class BulkTripPlanService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkTripPlanService.class);
+
+    private final TripPlanService planService;
+    private final ExecutorService executor;
+    private final TripPlanProperties.Bulk properties;
+
+    public BulkTripPlanService(TripPlanService planService, ExecutorService executor, TripPlanProperties properties) {
+        this.planService = planService;
+        this.executor = executor;
+        this.properties = properties.bulk();
+    }
+
+    // Donde vamos entregando los TripPlan (por ejemplo, la respuesta HTTP).
+    @FunctionalInterface
+    public interface Sink {
+        void send(TripPlan tripPlan) throws IOException;
+    }
+
+    // Quita los códigos repetidos y valida la lista. Hay que llamarlo antes de empezar a responder:
+    // con la respuesta en streaming ya enviada, un error ya no puede ser un 400.
+    public List<String> normalize(List<String> airportCodes) {
+        var codes = new LinkedHashSet<String>();
+        for (var code : airportCodes) {
+            if (code == null || code.isBlank()) {
+                throw new IllegalArgumentException("Airport codes must not be null or blank");
+            }
+            codes.add(code.trim().toUpperCase(Locale.ROOT));
+        }
+        if (codes.size() > this.properties.maxCodes()) {
+            throw new IllegalArgumentException("Too many airport codes: " + codes.size() + ". Max: " + this.properties.maxCodes());
+        }
+        return List.copyOf(codes);
+    }
+
+    // Bloquea hasta que todos los aeropuertos se han entregado al sink (o el sink falla, por ejemplo
+    // porque el cliente ha cerrado la conexión).
+    // codes debe venir de normalize().
+    public void planTrips(List<String> codes, Sink sink) throws InterruptedException {
+        var maxInFlight = this.properties.maxInFlight();
+        var permits = new Semaphore(maxInFlight);
+        // El sink no tiene por qué ser thread safe. Solo escribe un thread a la vez.
+        var sinkLock = new ReentrantLock();
+        // Si el sink falla dejamos de planificar aeropuertos nuevos.
+        var failed = new AtomicBoolean();
+
+        for (var code : codes) {
+            permits.acquire();
+            if (failed.get()) {
+                permits.release();
+                break;
+            }
+            this.executor.submit(() -> {
+                try {
+                    var tripPlan = this.planService.getTripPlan(code);
+                    send(sink, sinkLock, failed, tripPlan);
+                } catch (Exception e) {
+                    // Nadie mira el Future: si no lo dejamos en el log, el aeropuerto desaparece sin rastro.
+                    log.error("could not plan trip for {}", code, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        // Esperamos a los que siguen en curso.
+        permits.acquire(maxInFlight);
+    }
+
+    private static void send(Sink sink, Lock lock, AtomicBoolean failed, TripPlan tripPlan) {
+        lock.lock();
+        try {
+            if (!failed.get()) {
+                sink.send(tripPlan);
+            }
+        } catch (IOException e) {
+            log.warn("could not send trip plan for {}: {}", tripPlan.airportCode(), e.getMessage());
+            failed.set(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.jmunoz.trip_advisor.service;
+
+import com.jmunoz.trip_advisor.cache.NearCache;
+import com.jmunoz.trip_advisor.circuit.CircuitBreaker;
+import com.jmunoz.trip_advisor.coalescing.SingleFlight;
+import com.jmunoz.trip_advisor.client.*;
+import com.jmunoz.trip_advisor.config.TripPlanProperties;
+import com.jmunoz.trip_advisor.dto.*;
+import com.jmunoz.trip_advisor.hedging.HedgeBudget;
+import com.jmunoz.trip_advisor.hedging.Hedger;
+import com.jmunoz.trip_advisor.hedging.LatencyHistogram;
+import com.jmunoz.trip_advisor.limit.AdaptiveLimiter;
+import com.jmunoz.trip_advisor.limit.FixedLimiter;
+import com.jmunoz.trip_advisor.limit.Limiter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Se sitúa entre TripPlanService y los service clients de Trip Planning (sec02).
+// TripPlanService ya no llama directamente a los clientes, sino a esta clase, que es donde aplicamos
+// las políticas de cada proveedor antes de hacer la llamada real.
+//
+//   near-cache -> single-flight -> hedging -> circuit breaker -> límite de concurrencia (bulkhead) -> observation -> service client
+//
+// El circuit breaker va antes del limitador: con el circuito abierto la llamada falla al momento, sin ocupar
+// ni esperar un permit, y la rama de FanOut devuelve su valor por defecto en vez de gastar todo su budget.
+// Cada hedge pasa también por el circuit breaker, así que con el circuito abierto no se lanzan hedges.
+//
+// El single-flight va justo después de la caché: en un pico, las N peticiones a /trip/LAS que no encuentran
+// el dato en caché (o los proveedores sin caché, como weather) hacen una sola llamada por proveedor.
+// Como va antes del hedging, el limitador y el circuit breaker, la llamada compartida cuenta una sola vez.
+//
+// La observation (trip.upstream) mide solo la llamada real al proveedor: tiempo, errores y un span hijo del
+// TripPlan en la traza. Los aciertos de caché y la espera en el limitador no cuentan.
+
+@Service
+public class PlanningServiceGateway {
+
+    // Máximo de hedges que se pueden acumular después de un periodo tranquilo.
+    private static final double MAX_HEDGE_BURST = 10;
+
+    private final EventServiceClient eventServiceClient;
+    private final WeatherServiceClient weatherServiceClient;
+    private final AccommodationServiceClient accommodationServiceClient;
+    private final TransportationServiceClient transportationServiceClient;
+    private final LocalRecommendationServiceClient localRecommendationServiceClient;
+    // Solo existe un Hedger para los proveedores que tienen el hedging habilitado.
+    private final Map<Provider, Hedger> hedgers = new EnumMap<>(Provider.class);
+    // Solo existe una NearCache para los proveedores que tienen la caché configurada.
+    // La clave es el código de aeropuerto.
+    private final Map<Provider, NearCache<String, Object>> caches = new EnumMap<>(Provider.class);
+    // Límite de concurrencia por proveedor. Es global: lo comparten todas las peticiones (también las de POST /trip/plans)
+    // y cuenta también los hedges, que son llamadas reales al proveedor.
+    // Puede ser fijo (FixedLimiter) o adaptativo (AdaptiveLimiter).
+    private final Map<Provider, Limiter> limiters = new EnumMap<>(Provider.class);
+    // Request coalescing por proveedor (si trip-plan.coalescing está activo). La clave es el código de aeropuerto.
+    private final Map<Provider, SingleFlight<String>> singleFlights = new EnumMap<>(Provider.class);
+    // Solo existe un CircuitBreaker para los proveedores que lo tienen configurado.
+    private final Map<Provider, CircuitBreaker> circuitBreakers = new EnumMap<>(Provider.class);
+    // Llamadas reales en curso a cada proveedor.
+    private final Map<Provider, AtomicInteger> inFlight = new EnumMap<>(Provider.class);
+    private final ObservationRegistry observationRegistry;
+
+    public PlanningServiceGateway(EventServiceClient eventServiceClient, WeatherServiceClient weatherServiceClient,
+                                  AccommodationServiceClient accommodationServiceClient,
+                                  TransportationServiceClient transportationServiceClient,
+                                  LocalRecommendationServiceClient localRecommendationServiceClient,
+                                  ExecutorService executor,
+                                  TripPlanProperties properties,
+                                  ObservationRegistry observationRegistry) {
+        this.eventServiceClient = eventServiceClient;
+        this.weatherServiceClient = weatherServiceClient;
+        this.accommodationServiceClient = accommodationServiceClient;
+        this.transportationServiceClient = transportationServiceClient;
+        this.localRecommendationServiceClient = localRecommendationServiceClient;
+        this.observationRegistry = observationRegistry;
+        for (var provider : Provider.values()) {
+            this.inFlight.put(provider, new AtomicInteger());
+            if (properties.coalescing()) {
+                this.singleFlights.put(provider, new SingleFlight<>(provider.name(), executor));
+            }
+        }
+
+        var hedging = properties.hedging();
+        for (var provider : hedging.providers()) {
+            this.hedgers.put(provider, new Hedger(
+                    provider.name(),
+                    executor,
+                    new LatencyHistogram(hedging.window().toNanos()),
+                    new HedgeBudget(hedging.maxExtraLoad(), MAX_HEDGE_BURST),
+                    hedging.percentile(),
+                    hedging.minSamples()
+            ));
+        }
+
+        properties.cache().forEach((provider, cache) -> this.caches.put(provider, new NearCache<>(
+                provider.name(),
+                cache.ttl(),
+                cache.staleWhileRevalidate(),
+                cache.maxSize(),
+                executor
+        )));
+
+        properties.maxConcurrency().forEach((provider, limit) -> this.limiters.put(provider, new FixedLimiter(
+                provider.name(),
+                limit,
+                properties.maxConcurrencyWait().get(provider)
+        )));
+        properties.adaptiveConcurrency().forEach((provider, adaptive) -> this.limiters.put(provider, new AdaptiveLimiter(
+                provider.name(),
+                adaptive.initialLimit(),
+                adaptive.minLimit(),
+                Math.min(adaptive.maxLimit(), properties.maxConcurrency().getOrDefault(provider, Integer.MAX_VALUE)),
+                adaptive.backoffRatio(),
+                adaptive.slowCallThreshold(),
+                adaptive.maxQueue(),
+                adaptive.maxWait()
+        )));
+
+        properties.circuitBreaker().forEach((provider, circuit) -> this.circuitBreakers.put(provider, new CircuitBreaker(
+                provider.name(),
+                circuit.windowSize(),
+                circuit.minCalls(),
+                circuit.failureRateThreshold(),
+                circuit.slowCallRateThreshold(),
+                circuit.slowCallThreshold(),
+                circuit.openDuration(),
+                circuit.halfOpenCalls()
+        )));
+    }
+
+    public Map<Provider, NearCache<String, Object>> caches() {
+        return this.caches;
+    }
+
+    public Map<Provider, Limiter> limiters() {
+        return this.limiters;
+    }
+
+    public Map<Provider, SingleFlight<String>> singleFlights() {
+        return this.singleFlights;
+    }
+
+    public Map<Provider, CircuitBreaker> circuitBreakers() {
+        return this.circuitBreakers;
+    }
+
+    public Map<Provider, AtomicInteger> inFlight() {
+        return this.inFlight;
+    }
+
+    public List<Event> getEvents(String airportCode) throws Exception {
+        return call(Provider.EVENTS, airportCode, () -> this.eventServiceClient.getEvents(airportCode));
+    }
+
+    public Weather getWeather(String airportCode) throws Exception {
+        return call(Provider.WEATHER, airportCode, () -> this.weatherServiceClient.getWeather(airportCode));
+    }
+
+    public List<Accommodation> getAccommodations(String airportCode) throws Exception {
+        return call(Provider.ACCOMMODATIONS, airportCode, () -> this.accommodationServiceClient.getAccommodations(airportCode));
+    }
+
+    public Transportation getTransportation(String airportCode) throws Exception {
+        return call(Provider.TRANSPORTATION, airportCode, () -> this.transportationServiceClient.getTransportation(airportCode));
+    }
+
+    public LocalRecommendations getRecommendations(String airportCode) throws Exception {
+        return call(Provider.LOCAL_RECOMMENDATIONS, airportCode, () -> this.localRecommendationServiceClient.getRecommendations(airportCode));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T call(Provider provider, String airportCode, Callable<T> callable) throws Exception {
+        Callable<T> observed = () -> observe(provider, callable);
+
+        var limiter = this.limiters.get(provider);
+        Callable<T> limited = limiter == null ? observed : () -> limiter.execute(observed);
+
+        var circuitBreaker = this.circuitBreakers.get(provider);
+        Callable<T> protectedCall = circuitBreaker == null ? limited : () -> circuitBreaker.execute(limited);
+
+        var hedger = this.hedgers.get(provider);
+        Callable<T> hedged = hedger == null ? protectedCall : () -> hedger.call(protectedCall);
+
+        var singleFlight = this.singleFlights.get(provider);
+        Callable<T> upstream = singleFlight == null ? hedged : () -> singleFlight.execute(airportCode, hedged);
+
+        var cache = this.caches.get(provider);
+        return cache == null ? upstream.call() : (T) cache.get(airportCode, upstream::call);
+    }
+
+    private <T> T observe(Provider provider, Callable<T> callable) throws Exception {
+        var inFlight = this.inFlight.get(provider);
+        inFlight.incrementAndGet();
+        try {
+            return Observation.createNotStarted("trip.upstream", this.observationRegistry)
+                    .contextualName("upstream " + provider.name().toLowerCase(Locale.ROOT))
+                    .lowCardinalityKeyValue("provider", provider.name())
+                    .observeChecked(callable::call);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jmunoz.trip_advisor.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Selector top-K thread safe.
+// Varios threads le van ofreciendo elementos a medida que les llegan y solo guardamos los K mejores.
+// En vez de coleccionar listas enteras y ordenarlas al final, la memoria queda limitada a K elementos.
+//
+// Internamente es un max-heap (orden inverso): en la cabeza está el peor de los K mejores, que es el que
+// expulsamos cuando llega uno mejor.
+class TopK<T> {
+
+    private final int k;
+    private final Comparator<T> comparator;
+    private final PriorityQueue<T> heap;
+    private final Lock lock = new ReentrantLock();
+
+    TopK(int k, Comparator<T> comparator) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1: " + k);
+        }
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(k + 1, comparator.reversed());
+    }
+
+    void offer(T item) {
+        this.lock.lock();
+        try {
+            if (this.heap.size() < this.k) {
+                this.heap.add(item);
+            } else if (this.comparator.compare(item, this.heap.peek()) < 0) {
+                this.heap.poll();
+                this.heap.add(item);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Los K mejores, del mejor al peor.
+    List<T> best() {
+        this.lock.lock();
+        try {
+            var list = new ArrayList<>(this.heap);
+            list.sort(this.comparator);
+            return list;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -1,71 +1,188 @@
 package com.jmunoz.trip_advisor.service;
 
-import com.jmunoz.trip_advisor.client.*;
+import com.jmunoz.trip_advisor.client.Provider;
+import com.jmunoz.trip_advisor.config.TripPlanProperties;
 import com.jmunoz.trip_advisor.dto.TripPlan;
+import com.jmunoz.trip_advisor.dto.TripPlanStreamSummary;
+import com.jmunoz.trip_advisor.fanout.FanOut;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 // En este servicio inyectamos los service clients correspondientes a Trip Planning Service Providers (sec02)
 @Service
 public class TripPlanService {
 
     private static final Logger log = LoggerFactory.getLogger(TripPlanService.class);
-    private final EventServiceClient eventServiceClient;
-    private final WeatherServiceClient weatherServiceClient;
-    private final AccommodationServiceClient accommodationServiceClient;
-    private final TransportationServiceClient transportationServiceClient;
-    private final LocalRecommendationServiceClient localRecommendationServiceClient;
+
+    // Nombres de las secciones. Coinciden con los campos de TripPlan.
+    private static final String ACCOMMODATIONS = "accommodations";
+    private static final String WEATHER = "weather";
+    private static final String EVENTS = "events";
+    private static final String LOCAL_RECOMMENDATIONS = "localRecommendations";
+    private static final String TRANSPORTATION = "transportation";
+
+    // Los service clients de Trip Planning (sec02) los usamos a través de PlanningServiceGateway.
+    private final PlanningServiceGateway gateway;
 
     // Como parte de la clase de configuración expondremos este ExecutorService bean,
     // para que Spring inyecte to-do en el constructor.
     // Necesitamos un ExecutorService porque todos estos client son llamadas independientes.
     // Usando ExecutorService podremos hacer llamadas en paralelo.
     private final ExecutorService executor;
+    // Deadline de la petición y presupuesto de tiempo de cada proveedor.
+    private final TripPlanProperties properties;
+    // Cada TripPlan es una observation (trip.plan). Las cinco llamadas a los proveedores son sus hijas.
+    private final ObservationRegistry observationRegistry;
+    // Contador de secciones que devolvemos vacías (trip.plan.fallbacks).
+    private final MeterRegistry meterRegistry;
 
-    public TripPlanService(EventServiceClient eventServiceClient, WeatherServiceClient weatherServiceClient,
-                           AccommodationServiceClient accommodationServiceClient,
-                           TransportationServiceClient transportationServiceClient,
-                           LocalRecommendationServiceClient localRecommendationServiceClient,
-                           ExecutorService executor) {
-        this.eventServiceClient = eventServiceClient;
-        this.weatherServiceClient = weatherServiceClient;
-        this.accommodationServiceClient = accommodationServiceClient;
-        this.transportationServiceClient = transportationServiceClient;
-        this.localRecommendationServiceClient = localRecommendationServiceClient;
+    public TripPlanService(PlanningServiceGateway gateway,
+                           ExecutorService executor,
+                           TripPlanProperties properties,
+                           ObservationRegistry observationRegistry,
+                           MeterRegistry meterRegistry) {
+        this.gateway = gateway;
         this.executor = executor;
+        this.properties = properties;
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
     }
 
+    // Antes hacíamos future.get() de cada Future uno detrás de otro, sin límite de tiempo.
+    // Una llamada lenta (por ejemplo weather) retenía la petición aunque su resultado ya no sirviera, y si la
+    // petición se cancelaba, las cinco llamadas seguían ejecutándose.
+    // Ahora usamos FanOut: un deadline global más un presupuesto por proveedor. Lo que no llegue a tiempo
+    // se cancela y devolvemos un TripPlan parcial con lo que sí ha llegado.
     public TripPlan getTripPlan(String airportCode) {
-        var events = this.executor.submit(() -> this.eventServiceClient.getEvents(airportCode));
-        var weather = this.executor.submit(() -> this.weatherServiceClient.getWeather(airportCode));
-        var accommodations = this.executor.submit(() -> this.accommodationServiceClient.getAccommodations(airportCode));
-        var transportation = this.executor.submit(() -> this.transportationServiceClient.getTransportation(airportCode));
-        var recommendations = this.executor.submit(() -> this.localRecommendationServiceClient.getRecommendations(airportCode));
-
-        return new TripPlan(
-                airportCode,
-                getOrElse(accommodations, Collections.emptyList()),
-                getOrElse(weather, null),
-                getOrElse(events, Collections.emptyList()),
-                getOrElse(recommendations, null),
-                getOrElse(transportation, null)
-        );
+        return observation("full").observe(() -> planTrip(airportCode));
+    }
+
+    private TripPlan planTrip(String airportCode) {
+        try (var fanOut = new FanOut(this.executor, this.properties.deadline())) {
+            var events = fanOut.fork(EVENTS, budget(Provider.EVENTS), () -> this.gateway.getEvents(airportCode));
+            var weather = fanOut.fork(WEATHER, budget(Provider.WEATHER), () -> this.gateway.getWeather(airportCode));
+            var accommodations = fanOut.fork(ACCOMMODATIONS, budget(Provider.ACCOMMODATIONS), () -> this.gateway.getAccommodations(airportCode));
+            var transportation = fanOut.fork(TRANSPORTATION, budget(Provider.TRANSPORTATION), () -> this.gateway.getTransportation(airportCode));
+            var recommendations = fanOut.fork(LOCAL_RECOMMENDATIONS, budget(Provider.LOCAL_RECOMMENDATIONS), () -> this.gateway.getRecommendations(airportCode));
+
+            fanOut.join();
+
+            return new TripPlan(
+                    airportCode,
+                    getOrElse(accommodations, Collections.emptyList()),
+                    getOrElse(weather, null),
+                    getOrElse(events, Collections.emptyList()),
+                    getOrElse(recommendations, null),
+                    getOrElse(transportation, null)
+            );
+        }
+    }
+
+    // Donde vamos entregando las secciones del TripPlan (por ejemplo, Server-Sent Events).
+    public interface SectionSink {
+
+        void section(String name, Object value) throws IOException;
+
+        void complete(TripPlanStreamSummary summary) throws IOException;
+    }
+
+    // Versión en streaming de getTripPlan().
+    // Entregamos cada sección en cuanto su proveedor responde, así el primer byte llega con la latencia del
+    // proveedor más rápido y no del más lento.
+    // Al final entregamos un resumen con las secciones que no han llegado a tiempo o han fallado.
+    // Todas las escrituras en el sink las hace el thread que llama (FanOut.join() ejecuta el listener en él).
+    public void streamTripPlan(String airportCode, SectionSink sink) throws IOException {
+        observation("stream").observeChecked(() -> streamSections(airportCode, sink));
+    }
+
+    private void streamSections(String airportCode, SectionSink sink) throws IOException {
+        var timedOut = new ArrayList<String>();
+        var failed = new ArrayList<String>();
+        var sinkError = new AtomicReference<IOException>();
+
+        try (var fanOut = new FanOut(this.executor, this.properties.deadline())) {
+            fanOut.fork(EVENTS, budget(Provider.EVENTS), () -> this.gateway.getEvents(airportCode));
+            fanOut.fork(WEATHER, budget(Provider.WEATHER), () -> this.gateway.getWeather(airportCode));
+            fanOut.fork(ACCOMMODATIONS, budget(Provider.ACCOMMODATIONS), () -> this.gateway.getAccommodations(airportCode));
+            fanOut.fork(TRANSPORTATION, budget(Provider.TRANSPORTATION), () -> this.gateway.getTransportation(airportCode));
+            fanOut.fork(LOCAL_RECOMMENDATIONS, budget(Provider.LOCAL_RECOMMENDATIONS), () -> this.gateway.getRecommendations(airportCode));
+
+            fanOut.join(branch -> {
+                switch (branch.state()) {
+                    case SUCCESS -> {
+                        if (sinkError.get() == null) {
+                            try {
+                                sink.section(branch.name(), branch.getOrElse(null));
+                            } catch (IOException e) {
+                                // Probablemente el cliente se ha ido. Dejamos de escribir y cancelamos las
+                                // llamadas que quedan: no hay nadie esperando sus resultados.
+                                sinkError.set(e);
+                                fanOut.cancel();
+                            }
+                        }
+                    }
+                    case FAILED -> {
+                        log.error("{} failed", branch.name(), branch.exception());
+                        fallback(branch);
+                        failed.add(branch.name());
+                    }
+                    default -> {
+                        log.warn("{} not available: {}", branch.name(), branch.state());
+                        fallback(branch);
+                        timedOut.add(branch.name());
+                    }
+                }
+            });
+        }
+
+        if (sinkError.get() != null) {
+            throw sinkError.get();
+        }
+        sink.complete(new TripPlanStreamSummary(airportCode, timedOut, failed));
+    }
+
+    private Duration budget(Provider provider) {
+        return this.properties.budget(provider);
     }
 
     // Si falla un servicio, no significa que toda la respuesta sea fallida.
     // Daremos al usuario la información que nos venga correcta.
-    private <T> T getOrElse(Future<T> future, T defaultValue) {
-        try {
-            return future.get();
-        } catch (Exception e) {
-            log.error("error", e);
+    private <T> T getOrElse(FanOut.Branch<T> branch, T defaultValue) {
+        switch (branch.state()) {
+            case SUCCESS -> {
+                return branch.getOrElse(defaultValue);
+            }
+            case FAILED -> log.error("{} failed", branch.name(), branch.exception());
+            default -> log.warn("{} not available: {}", branch.name(), branch.state());
         }
 
+        fallback(branch);
         return defaultValue;
     }
+
+    // Ejemplo: /actuator/metrics/trip.plan.fallbacks?tag=section:weather&tag=reason:timeout
+    private void fallback(FanOut.Branch<?> branch) {
+        Counter.builder("trip.plan.fallbacks")
+                .tags("section", branch.name(), "reason", branch.state().name().toLowerCase(Locale.ROOT))
+                .register(this.meterRegistry)
+                .increment();
+    }
+
+    private Observation observation(String mode) {
+        return Observation.createNotStarted("trip.plan", this.observationRegistry)
+                .lowCardinalityKeyValue("mode", mode);
+    }
 }
@@ -2,33 +2,112 @@ package com.jmunoz.trip_advisor.service;
 
 import com.jmunoz.trip_advisor.client.FlightReservationServiceClient;
 import com.jmunoz.trip_advisor.client.FlightSearchServiceClient;
+import com.jmunoz.trip_advisor.config.TripReservationProperties;
 import com.jmunoz.trip_advisor.dto.Flight;
 import com.jmunoz.trip_advisor.dto.FlightReservationRequest;
 import com.jmunoz.trip_advisor.dto.FlightReservationResponse;
 import com.jmunoz.trip_advisor.dto.TripReservationRequest;
+import com.jmunoz.trip_advisor.fanout.FanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
 
 // En este servicio inyectamos los service clients correspondientes a Flight Search Reservation Service Providers (sec03)
 @Service
 public class TripReservationService {
 
+    private static final Logger log = LoggerFactory.getLogger(TripReservationService.class);
+
     private final FlightSearchServiceClient searchServiceClient;
     private final FlightReservationServiceClient reservationServiceClient;
+    // Para la búsqueda multi-ruta, donde hacemos las búsquedas en paralelo.
+    private final ExecutorService executor;
+    private final TripReservationProperties properties;
 
-    public TripReservationService(FlightSearchServiceClient searchServiceClient, FlightReservationServiceClient reservationServiceClient) {
+    public TripReservationService(FlightSearchServiceClient searchServiceClient, FlightReservationServiceClient reservationServiceClient,
+                                  ExecutorService executor, TripReservationProperties properties) {
         this.searchServiceClient = searchServiceClient;
         this.reservationServiceClient = reservationServiceClient;
+        this.executor = executor;
+        this.properties = properties;
     }
 
     // Pasamos la petición del usuario.
     public FlightReservationResponse reserve(TripReservationRequest request) {
         // Vamos a hacer llamadas secuenciales a los service client.
-        var flights = this.searchServiceClient.getFlights(request.departure(), request.arrival());
-        var bestDeal = flights.stream().min(Comparator.comparingInt(Flight::price));
-        var flight = bestDeal.orElseThrow(() -> new IllegalStateException("No flights found"));
+        // Solo nos interesa el vuelo más barato: se calcula mientras se lee la respuesta, sin crear la lista.
+        var bestDeal = this.searchServiceClient.getCheapestFlight(request.departure(), request.arrival());
+        var flight = bestDeal.orElseThrow(TripReservationService::noFlightsFound);
         var reservationRequest = new FlightReservationRequest(request.departure(), request.arrival(), flight.flightNumber(), request.date());
         return this.reservationServiceClient.reserve(reservationRequest);
     }
+
+    // Búsqueda multi-ruta: el mejor precio entre los aeropuertos cercanos y dentro de la fecha +- flexibleDays.
+    //
+    // Buscamos todas las combinaciones de aeropuertos en paralelo (FanOut) y cada búsqueda va dejando sus vuelos
+    // en un selector top-K, en vez de coleccionar todas las listas.
+    // Cuando todas las búsquedas terminan (o vence searchDeadline, y las que quedan se cancelan) el mejor
+    // candidato ya no va a cambiar, y reservamos.
+    // Así la petición tarda lo que la búsqueda más lenta más una reserva, y no la suma de todas las búsquedas.
+    public FlightReservationResponse reserveBestDeal(TripReservationRequest request) {
+        var earliest = request.date().minusDays(this.properties.flexibleDays());
+        var latest = request.date().plusDays(this.properties.flexibleDays());
+        var best = new TopK<FlightCandidate>(this.properties.candidates(), Comparator.comparingInt(c -> c.flight().price()));
+
+        try (var fanOut = new FanOut(this.executor, this.properties.searchDeadline())) {
+            var searches = new ArrayList<FanOut.Branch<Integer>>();
+            for (var departure : this.properties.nearbyAirports(request.departure())) {
+                for (var arrival : this.properties.nearbyAirports(request.arrival())) {
+                    if (!departure.equals(arrival)) {
+                        searches.add(fanOut.fork(departure + "-" + arrival, this.properties.searchDeadline(),
+                                () -> search(departure, arrival, earliest, latest, best)));
+                    }
+                }
+            }
+            fanOut.join();
+            searches.stream()
+                    .filter(search -> search.state() != FanOut.Branch.State.SUCCESS)
+                    .forEach(search -> log.warn("search {} not available: {}", search.name(), search.state()));
+        }
+
+        // Si falla la reserva del mejor candidato, probamos con el siguiente.
+        for (var candidate : best.best()) {
+            var flight = candidate.flight();
+            var tripDate = flight.date() == null ? request.date() : flight.date();
+            try {
+                return this.reservationServiceClient.reserve(
+                        new FlightReservationRequest(candidate.departure(), candidate.arrival(), flight.flightNumber(), tripDate));
+            } catch (RestClientException e) {
+                log.warn("could not reserve {} {}-{}", flight.flightNumber(), candidate.departure(), candidate.arrival(), e);
+            }
+        }
+
+        throw noFlightsFound();
+    }
+
+    // No es un error del servidor: el cliente recibe un 404.
+    private static ResponseStatusException noFlightsFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No flights found");
+    }
+
+    // Devuelve el número de vuelos encontrados para esta ruta.
+    // Cada vuelo va al selector top-K según se lee la respuesta, sin crear la lista de vuelos.
+    private int search(String departure, String arrival, LocalDate earliest, LocalDate latest, TopK<FlightCandidate> best) {
+        return this.searchServiceClient.forEachFlight(departure, arrival, flight -> {
+            if (flight.date() == null || (!flight.date().isBefore(earliest) && !flight.date().isAfter(latest))) {
+                best.offer(new FlightCandidate(departure, arrival, flight));
+            }
+        });
+    }
+
+    private record FlightCandidate(String departure, String arrival, Flight flight) {
+    }
 }
@@ -0,0 +1,101 @@
+package com.jmunoz.trip_advisor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// NO ES UNA CLASE DE TEST.
+// Benchmark sencillo para ver el efecto de reutilizar conexiones (keep-alive).
+// Necesita external-services.jar arrancado (puerto 7070).
+//
+// Comparamos:
+//   - shared: un único HttpClient para todas las peticiones (lo que hace ServiceClientsConfig).
+//     Las conexiones se quedan en el pool y se reutilizan.
+//   - per request: un HttpClient nuevo por petición (lo que pasaba al crear un RestClient cada vez).
+//     Cada petición abre su propia conexión TCP y deja un puerto en TIME_WAIT al cerrarla.
+//
+// Para ver los puertos: `ss -tan | grep 7070 | wc -l` mientras se ejecuta.
+public class ConnectionReuseBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionReuseBenchmark.class);
+
+    private static final URI URI_WEATHER = URI.create("http://localhost:7070/sec02/weather/LAS");
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 100;
+
+    static void main() throws Exception {
+        // El mismo valor que -Djdk.httpclient.keepalive.timeout en pom.xml. Aquí sí funciona: es antes de crear ningún HttpClient.
+        System.setProperty("jdk.httpclient.keepalive.timeout", "30");
+
+        // HttpClient es AutoCloseable: cada uno tiene su selector thread y su pool de conexiones.
+        try (var http1 = newClient(HttpClient.Version.HTTP_1_1);
+             var http2 = newClient(HttpClient.Version.HTTP_2)) {
+            // Calentamiento
+            run("warm-up", shared(http1));
+
+            run("shared HTTP/1.1", shared(http1));
+            run("shared HTTP/2", shared(http2));
+        }
+        run("per request", () -> new ClientLease(newClient(HttpClient.Version.HTTP_1_1), true));
+    }
+
+    // El cliente compartido no se cierra después de cada petición (lo cerramos en main).
+    private static Supplier<ClientLease> shared(HttpClient client) {
+        return () -> new ClientLease(client, false);
+    }
+
+    // Un cliente para una petición. Si es suyo (per request), se cierra al terminarla.
+    private record ClientLease(HttpClient client, boolean owned) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            if (this.owned) {
+                this.client.close();
+            }
+        }
+    }
+
+    private static HttpClient newClient(HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(1))
+                .version(version)
+                .build();
+    }
+
+    // Lanzamos REQUESTS peticiones en virtual threads, como mucho CONCURRENCY a la vez.
+    private static void run(String name, Supplier<ClientLease> clients) throws Exception {
+        var errors = new AtomicInteger();
+        var permits = new Semaphore(CONCURRENCY);
+        var start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try (var lease = clients.get()) {
+                        var request = HttpRequest.newBuilder(URI_WEATHER).timeout(Duration.ofSeconds(5)).build();
+                        var response = lease.client().send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("{}: {} requests in {} ms ({} req/s), errors: {}",
+                name, REQUESTS, elapsed.toMillis(), REQUESTS * 1000L / Math.max(1, elapsed.toMillis()), errors.get());
+    }
+}
@@ -0,0 +1,142 @@
+package com.jmunoz.trip_advisor.circuit;
+
+import com.jmunoz.trip_advisor.limit.LimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Transiciones de estado de CircuitBreaker: CLOSED -> OPEN -> HALF_OPEN -> CLOSED / OPEN.
+// No hace falta ningún servicio externo: las llamadas al proveedor son lambdas.
+class CircuitBreakerTests {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() throws Exception {
+        var breaker = breaker(Duration.ofSeconds(1));
+        callSucceeds(breaker);
+        callFails(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        callFails(breaker);
+        callFails(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void rejectsCallsWhileOpen() {
+        var breaker = open(breaker(Duration.ofSeconds(1)));
+        var calls = new AtomicInteger();
+
+        assertThrows(CallNotPermittedException.class, () -> breaker.execute(calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertEquals(1, breaker.notPermitted());
+    }
+
+    @Test
+    void closesAfterSuccessfulTrialCalls() throws Exception {
+        var breaker = open(breaker(Duration.ofSeconds(1)));
+        Thread.sleep(OPEN_DURATION.multipliedBy(2));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        callSucceeds(breaker);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        callSucceeds(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void reopensWhenTrialCallsFail() throws Exception {
+        var breaker = open(breaker(Duration.ofSeconds(1)));
+        Thread.sleep(OPEN_DURATION.multipliedBy(2));
+
+        callFails(breaker);
+        callFails(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    // Un proveedor colgado: FanOut cancela la llamada antes del read timeout. Si ya era lenta, cuenta como error.
+    @Test
+    void countsCancelledSlowCalls() {
+        var breaker = breaker(Duration.ofMillis(10));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(InterruptedException.class, () -> breaker.execute(() -> {
+                Thread.sleep(20);
+                throw new InterruptedException();
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    // Cancelada pronto o rechazada por el limitador: no dice nada de la salud del proveedor.
+    @Test
+    void ignoresFastCancellationsAndLimiterRejections() throws Exception {
+        var breaker = breaker(Duration.ofSeconds(1));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(InterruptedException.class, () -> breaker.execute(() -> {
+                throw new InterruptedException();
+            }));
+            assertThrows(LimitExceededException.class, () -> breaker.execute(() -> {
+                throw new LimitExceededException("limit reached");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        // La ventana sigue vacía: hacen falta 4 llamadas con resultado para abrir.
+        callFails(breaker);
+        callFails(breaker);
+        callFails(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        callSucceeds(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    // En HALF_OPEN una llamada de prueba ignorada deja su hueco a otra.
+    @Test
+    void ignoredTrialCallFreesItsSlot() throws Exception {
+        var breaker = open(breaker(Duration.ofSeconds(1)));
+        Thread.sleep(OPEN_DURATION.multipliedBy(2));
+
+        assertThrows(LimitExceededException.class, () -> breaker.execute(() -> {
+            throw new LimitExceededException("limit reached");
+        }));
+        callSucceeds(breaker);
+        callSucceeds(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.notPermitted());
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("test", 0, 1, 0.5, 1.0,
+                Duration.ofSeconds(1), OPEN_DURATION, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("test", 4, 1, 0.5, 1.0,
+                Duration.ofSeconds(1), OPEN_DURATION, 0));
+    }
+
+    // Ventana de 4 llamadas, abre con el 50% de errores y hace 2 llamadas de prueba en HALF_OPEN.
+    private static CircuitBreaker breaker(Duration slowCallThreshold) {
+        return new CircuitBreaker("test", 4, 4, 0.5, 1.0, slowCallThreshold, OPEN_DURATION, 2);
+    }
+
+    private static CircuitBreaker open(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            callFails(breaker);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+
+    private static void callSucceeds(CircuitBreaker breaker) throws Exception {
+        assertEquals("ok", breaker.execute(() -> "ok"));
+    }
+
+    private static void callFails(CircuitBreaker breaker) {
+        assertThrows(IllegalStateException.class, () -> breaker.execute(() -> {
+            throw new IllegalStateException("provider failed");
+        }));
+    }
+}
@@ -0,0 +1,144 @@
+package com.jmunoz.trip_advisor.coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Coalescing de SingleFlight: N llamadas a la vez con la misma clave, una sola llamada al proveedor.
+class SingleFlightTests {
+
+    private static final int CALLERS = 10;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlight<String> singleFlight = new SingleFlight<>("test", this.executor);
+
+    @AfterEach
+    void close() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        Callable<String> provider = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "LAS";
+        };
+
+        var results = new ArrayList<Future<String>>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(this.executor.submit(() -> this.singleFlight.execute("key", provider)));
+        }
+        // Soltamos al proveedor cuando todos se han unido a la llamada en curso.
+        awaitUntil(() -> this.singleFlight.coalesced() == CALLERS - 1);
+        release.countDown();
+
+        for (var result : results) {
+            assertEquals("LAS", result.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, this.singleFlight.inFlight());
+    }
+
+    @Test
+    void waitersShareTheFailure() throws Exception {
+        var release = new CountDownLatch(1);
+        Callable<String> provider = () -> {
+            release.await();
+            throw new IllegalStateException("provider failed");
+        };
+
+        var results = new ArrayList<Future<String>>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(this.executor.submit(() -> this.singleFlight.execute("key", provider)));
+        }
+        awaitUntil(() -> this.singleFlight.coalesced() == CALLERS - 1);
+        release.countDown();
+
+        for (var result : results) {
+            var e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    // No es una caché: en cuanto termina la llamada, la siguiente vuelve a ir al proveedor.
+    @Test
+    void nextCallGoesToProvider() throws Exception {
+        var calls = new AtomicInteger();
+        Callable<Integer> provider = calls::incrementAndGet;
+
+        assertEquals(1, this.singleFlight.execute("key", provider));
+        assertEquals(2, this.singleFlight.execute("key", provider));
+        assertEquals(0, this.singleFlight.coalesced());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() throws Exception {
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        Callable<String> provider = () -> {
+            calls.incrementAndGet();
+            release.await();
+            return "ok";
+        };
+
+        var first = this.executor.submit(() -> this.singleFlight.execute("LAS", provider));
+        var second = this.executor.submit(() -> this.singleFlight.execute("ATL", provider));
+        awaitUntil(() -> calls.get() == 2);
+        release.countDown();
+
+        assertEquals("ok", first.get(1, TimeUnit.SECONDS));
+        assertEquals("ok", second.get(1, TimeUnit.SECONDS));
+        assertEquals(0, this.singleFlight.coalesced());
+    }
+
+    // Si se va el último que esperaba (FanOut lo interrumpe), se cancela la llamada al proveedor.
+    @Test
+    void lastWaiterLeavingCancelsCall() throws Exception {
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        Callable<String> provider = () -> {
+            started.countDown();
+            try {
+                Thread.sleep(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "late";
+        };
+
+        var waiters = new ArrayList<Future<String>>();
+        for (int i = 0; i < 2; i++) {
+            waiters.add(this.executor.submit(() -> this.singleFlight.execute("key", provider)));
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        awaitUntil(() -> this.singleFlight.coalesced() == 1);
+
+        // Queda uno esperando: la llamada sigue adelante.
+        waiters.get(0).cancel(true);
+        assertFalse(interrupted.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, this.singleFlight.inFlight());
+
+        waiters.get(1).cancel(true);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        awaitUntil(() -> this.singleFlight.inFlight() == 0);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jmunoz.trip_advisor.fanout;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Deadline y cancelación de FanOut. Sin contexto de petición (RequestContext.EMPTY): solo cuenta el timeout.
+class FanOutTests {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void close() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void slowBranchTimesOutAndIsInterrupted() throws Exception {
+        var interrupted = new CountDownLatch(1);
+        try (var fanOut = new FanOut(this.executor, Duration.ofSeconds(5))) {
+            var fast = fanOut.fork("fast", Duration.ofSeconds(1), () -> "ok");
+            var slow = fanOut.fork("slow", Duration.ofMillis(100), () -> sleep(interrupted));
+
+            var start = System.nanoTime();
+            fanOut.join();
+            assertTrue(elapsed(start).compareTo(Duration.ofSeconds(1)) < 0);
+
+            assertEquals(FanOut.Branch.State.SUCCESS, fast.state());
+            assertEquals("ok", fast.getOrElse("default"));
+            assertEquals(FanOut.Branch.State.TIMEOUT, slow.state());
+            assertEquals("default", slow.getOrElse("default"));
+        }
+        // No dejamos el virtual thread trabajando para nadie.
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    // El budget de la rama nunca supera el deadline global.
+    @Test
+    void joinReturnsByGlobalDeadline() throws Exception {
+        var interrupted = new CountDownLatch(1);
+        try (var fanOut = new FanOut(this.executor, Duration.ofMillis(100))) {
+            var slow = fanOut.fork("slow", Duration.ofSeconds(10), () -> sleep(interrupted));
+
+            var start = System.nanoTime();
+            fanOut.join();
+            assertTrue(elapsed(start).compareTo(Duration.ofSeconds(1)) < 0);
+            assertEquals(FanOut.Branch.State.TIMEOUT, slow.state());
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedBranchKeepsItsException() {
+        try (var fanOut = new FanOut(this.executor, Duration.ofSeconds(5))) {
+            var failed = fanOut.fork("failed", Duration.ofSeconds(1), () -> {
+                throw new IllegalStateException("provider failed");
+            });
+
+            fanOut.join();
+            assertEquals(FanOut.Branch.State.FAILED, failed.state());
+            assertInstanceOf(IllegalStateException.class, failed.exception());
+            assertNull(failed.getOrElse(null));
+        }
+    }
+
+    // El listener recibe las ramas en el orden en el que terminan. cancel() desde el listener no espera al resto.
+    @Test
+    void cancelFromListenerStopsJoin() throws Exception {
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        try (var fanOut = new FanOut(this.executor, Duration.ofSeconds(5))) {
+            var slow = fanOut.fork("slow", Duration.ofSeconds(5), () -> {
+                started.countDown();
+                return sleep(interrupted);
+            });
+            // Termina cuando la lenta ya está en marcha: cancelarla tiene que interrumpirla.
+            var fast = fanOut.fork("fast", Duration.ofSeconds(5), () -> {
+                started.await();
+                return "ok";
+            });
+
+            var notified = new ArrayList<String>();
+            var start = System.nanoTime();
+            fanOut.join(branch -> {
+                notified.add(branch.name());
+                fanOut.cancel();
+            });
+            assertTrue(elapsed(start).compareTo(Duration.ofSeconds(1)) < 0);
+
+            assertEquals(List.of("fast"), notified);
+            assertEquals(FanOut.Branch.State.SUCCESS, fast.state());
+            assertEquals(FanOut.Branch.State.CANCELLED, slow.state());
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    // Una llamada colgada al proveedor. Avisa cuando la interrumpen.
+    private static String sleep(CountDownLatch interrupted) throws InterruptedException {
+        try {
+            Thread.sleep(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+        return "late";
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
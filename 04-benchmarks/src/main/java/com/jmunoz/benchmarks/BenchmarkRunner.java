@@ -0,0 +1,44 @@
+package com.jmunoz.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Ejecuta los benchmarks una vez por cada valor de parallelism del scheduler de virtual threads
+// (número de carrier threads, -Djdk.virtualThreadScheduler.parallelism) y guarda los resultados en JSON:
+//
+//   results/jdk-<versión>/p<parallelism>.json
+//
+// Así podemos comparar resultados entre versiones de la JDK (regresiones).
+//
+// Para ejecutarlo:
+//   java -Dparallelism=1,2,4,8 -cp target/benchmarks.jar com.jmunoz.benchmarks.BenchmarkRunner [regex]
+//
+// Sin regex se ejecutan todos los benchmarks. Sin -Dparallelism se usa el número de procesadores disponibles.
+public class BenchmarkRunner {
+
+    static void main(String[] args) throws Exception {
+        var include = args.length > 0 ? args[0] : ".*";
+        var parallelismValues = System.getProperty("parallelism", String.valueOf(Runtime.getRuntime().availableProcessors()))
+                .split(",");
+
+        var dir = Path.of("results", "jdk-" + Runtime.version().feature());
+        Files.createDirectories(dir);
+
+        for (var value : parallelismValues) {
+            var parallelism = Integer.parseInt(value.trim());
+            var options = new OptionsBuilder()
+                    .include(include)
+                    // Prepend y no append: jvmArgsAppend sustituiría al de @Fork de cada benchmark
+                    // (--enable-preview, -Xms4g -Xmx4g...) en vez de sumarse.
+                    .jvmArgsPrepend("-Djdk.virtualThreadScheduler.parallelism=" + parallelism)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(dir.resolve("p" + parallelism + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.jmunoz.benchmarks.sec01;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Fan-out de tareas I/O bloqueantes (como Task.ioIntensive() de sec01, pero con 10ms y sin logs).
+//   - virtual: un virtual thread por tarea.
+//   - platform-pool: pool fijo de 200 platform threads (el valor por defecto de Tomcat).
+//     No usamos un platform thread por tarea porque con 100k tareas nos quedamos sin threads del SO.
+//
+// Con 1k tareas el pool aguanta. Con 10k y 100k las tareas hacen cola en el pool y el tiempo crece lineal,
+// mientras que con virtual threads se mantiene cerca de los 10ms de una sola tarea.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class BlockingIoFanOutBenchmark {
+
+    private static final Duration IO_TIME = Duration.ofMillis(10);
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"1000", "10000", "100000"})
+    private int tasks;
+
+    @Param({"virtual", "platform-pool"})
+    private String executorType;
+
+    @Benchmark
+    public void fanOut() {
+        try (var executor = newExecutor()) {
+            for (int i = 0; i < this.tasks; i++) {
+                executor.submit(() -> {
+                    Thread.sleep(IO_TIME);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        return "virtual".equals(this.executorType)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+    }
+}
@@ -0,0 +1,32 @@
+package com.jmunoz.benchmarks.sec01;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste de crear, arrancar y esperar (join) un thread que no hace nada.
+// Es lo que intuíamos en InboundOutboundTaskDemo: un platform thread es un thread del SO, un virtual thread
+// es solo un objeto en el heap.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class ThreadStartBenchmark {
+
+    @Param({"virtual", "platform"})
+    private String threadType;
+
+    private Thread.Builder builder;
+
+    @Setup
+    public void setup() {
+        this.builder = "virtual".equals(this.threadType) ? Thread.ofVirtual() : Thread.ofPlatform();
+    }
+
+    @Benchmark
+    public void startAndJoin() throws InterruptedException {
+        this.builder.start(() -> {}).join();
+    }
+}
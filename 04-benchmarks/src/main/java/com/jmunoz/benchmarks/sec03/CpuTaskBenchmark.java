@@ -0,0 +1,73 @@
+package com.jmunoz.benchmarks.sec03;
+
+import com.jmunoz.sec03.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+// Tareas de CPU intensivas (Task.findFib() de sec03), igual que CPUTaskDemo pero medido con JMH.
+//   - virtual: un virtual thread por tarea. Se ejecutan sobre los carrier threads del scheduler (un ForkJoinPool).
+//   - platform: un platform thread por tarea.
+//   - forkjoin: un ForkJoinPool con tantos threads como carriers tiene el scheduler de virtual threads.
+//
+// Lo normal es que los tres tarden lo mismo: en tareas de CPU los virtual threads no aportan nada.
+// El número de tareas es `tasksPerCore` * procesadores disponibles (CPUTaskDemo usaba 3).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class CpuTaskBenchmark {
+
+    @Param({"virtual", "platform", "forkjoin"})
+    private String executorType;
+
+    @Param({"1", "3"})
+    private int tasksPerCore;
+
+    @Param({"30"})
+    private int fibInput;
+
+    private int tasks;
+    private ForkJoinPool forkJoinPool;
+
+    @Setup
+    public void setup() {
+        this.tasks = this.tasksPerCore * Runtime.getRuntime().availableProcessors();
+        // Misma parallelism que el scheduler de virtual threads (ver BenchmarkRunner).
+        var parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+        this.forkJoinPool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.forkJoinPool.close();
+    }
+
+    @Benchmark
+    public long findFib() throws Exception {
+        var executor = newExecutor();
+        var futures = new Future<?>[this.tasks];
+        for (int i = 0; i < this.tasks; i++) {
+            futures[i] = executor.submit(() -> Task.findFib(this.fibInput));
+        }
+        long sum = 0;
+        for (var future : futures) {
+            sum += (Long) future.get();
+        }
+        // El ForkJoinPool se reutiliza entre invocaciones (se cierra en tearDown)
+        if (executor != this.forkJoinPool) {
+            executor.close();
+        }
+        return sum;
+    }
+
+    private ExecutorService newExecutor() {
+        return switch (this.executorType) {
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            case "platform" -> Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory());
+            default -> this.forkJoinPool;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.jmunoz.benchmarks.sec05;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// synchronized vs ReentrantLock con contención, el mismo escenario que Lec02Synchronization y Lec04ReentrantLock:
+// 50 threads añadiendo 200 elementos cada uno a un ArrayList compartido (10.000 elementos).
+// Desde Java 24 (JEP 491) synchronized ya no fija (pin) el virtual thread a su carrier, así que
+// con virtual threads la diferencia debería ser pequeña.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class LockContentionBenchmark {
+
+    private static final int THREADS = 50;
+    private static final int ITEMS_PER_THREAD = 200;
+
+    @Param({"virtual", "platform"})
+    private String threadType;
+
+    @Param({"synchronized", "reentrant-lock"})
+    private String lockType;
+
+    private final Object monitor = new Object();
+    private final Lock lock = new ReentrantLock();
+    private Thread.Builder builder;
+    private List<Integer> list;
+
+    @Setup
+    public void setup() {
+        this.builder = "virtual".equals(this.threadType) ? Thread.ofVirtual() : Thread.ofPlatform();
+    }
+
+    @Setup(Level.Invocation)
+    public void newList() {
+        this.list = new ArrayList<>(THREADS * ITEMS_PER_THREAD);
+    }
+
+    @Benchmark
+    public int addItems() throws InterruptedException {
+        var latch = new CountDownLatch(THREADS);
+        Runnable task = "synchronized".equals(this.lockType) ? this::addSynchronized : this::addWithLock;
+        for (int i = 0; i < THREADS; i++) {
+            this.builder.start(() -> {
+                task.run();
+                latch.countDown();
+            });
+        }
+        latch.await();
+        return this.list.size();
+    }
+
+    private void addSynchronized() {
+        for (int j = 0; j < ITEMS_PER_THREAD; j++) {
+            synchronized (this.monitor) {
+                this.list.add(1);
+            }
+        }
+    }
+
+    private void addWithLock() {
+        for (int j = 0; j < ITEMS_PER_THREAD; j++) {
+            try {
+                this.lock.lock();
+                this.list.add(1);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.jmunoz.benchmarks.sec07;
+
+import com.jmunoz.sec07.concurrencylimit.ConcurrencyLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Compara el modo ordenado de ConcurrencyLimiter (sec07):
+//   - dispatcher: versión actual. Como mucho `limit` workers sacando tareas de una cola lock-free.
+//   - thread-per-task: primera versión (ThreadPerTaskLimiter). Un virtual thread aparcado por tarea pendiente.
+//
+// Con 10k, 100k y 1M tareas pendientes medimos:
+//   - throughput: tiempo en ejecutar todas las tareas (cada una hace un poco de CPU).
+//   - footprint: memoria retenida mientras todas las tareas están pendientes. Bloqueamos los workers con un
+//     CountDownLatch, medimos el heap y después los dejamos terminar. El tiempo de este benchmark no importa,
+//     lo que interesa son los contadores retainedMb y bytesPerPendingTask.
+//
+// Para ejecutarlo:
+//   java -jar target/benchmarks.jar ConcurrencyLimiterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xms4g", "-Xmx4g"})
+public class ConcurrencyLimiterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int pending;
+
+    @Param({"dispatcher", "thread-per-task"})
+    private String limiter;
+
+    @Param({"8"})
+    private int limit;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public double retainedMb;
+        public double bytesPerPendingTask;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.retainedMb = 0;
+            this.bytesPerPendingTask = 0;
+        }
+    }
+
+    @Benchmark
+    public void throughput(Blackhole blackhole) throws Exception {
+        run(i -> () -> {
+            Blackhole.consumeCPU(100);
+            return i;
+        }, blackhole, () -> {});
+    }
+
+    @Benchmark
+    public void footprint(Footprint footprint, Blackhole blackhole) throws Exception {
+        var gate = new CountDownLatch(1);
+        var before = usedHeap();
+        run(i -> () -> {
+            gate.await();
+            return i;
+        }, blackhole, () -> {
+            var retained = usedHeap() - before;
+            footprint.retainedMb = retained / (1024.0 * 1024.0);
+            footprint.bytesPerPendingTask = (double) retained / this.pending;
+            gate.countDown();
+        });
+    }
+
+    // Sometemos todas las tareas, ejecutamos afterSubmit (con las tareas aún pendientes o ejecutándose)
+    // y esperamos a que terminen todas (close() del limiter).
+    private void run(TaskFactory tasks, Blackhole blackhole, Runnable afterSubmit) throws Exception {
+        if ("dispatcher".equals(this.limiter)) {
+            try (var concurrencyLimiter = new ConcurrencyLimiter(Executors.newVirtualThreadPerTaskExecutor(), this.limit)) {
+                for (int i = 0; i < this.pending; i++) {
+                    blackhole.consume(concurrencyLimiter.submit(tasks.create(i)));
+                }
+                afterSubmit.run();
+            }
+        } else {
+            try (var concurrencyLimiter = new ThreadPerTaskLimiter(Executors.newVirtualThreadPerTaskExecutor(), this.limit)) {
+                for (int i = 0; i < this.pending; i++) {
+                    blackhole.consume(concurrencyLimiter.submit(tasks.create(i)));
+                }
+                afterSubmit.run();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface TaskFactory {
+        Callable<Integer> create(int i);
+    }
+}
@@ -0,0 +1,75 @@
+package com.jmunoz.benchmarks.sec07;
+
+import com.jmunoz.sec07.scheduler.ScheduledTask;
+import com.jmunoz.sec07.scheduler.VirtualThreadScheduler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Compara VirtualThreadScheduler (sec07/scheduler, rueda de tiempo) con ScheduledThreadPoolExecutor (heap con un lock).
+//
+// Con 10k, 100k y 1M timers pendientes medimos el tiempo en planificarlos todos (retrasos de hasta 1 minuto, no llega
+// a ejecutarse ninguno) y cancelarlos después. Es el caso de los timeouts: casi todos se cancelan antes de vencer.
+//   - ScheduledThreadPoolExecutor inserta en el heap dentro de schedule(). Usamos setRemoveOnCancelPolicy(true):
+//     si no, los cancelados se quedan en el heap.
+//   - VirtualThreadScheduler solo deja la tarea en una cola; la coloca en la rueda el ticker. Esperamos a que estén
+//     todas en la rueda (metrics().inWheel()) antes de cancelar, para medir también esa inserción. Cancelar solo
+//     marca la tarea: la rueda la descarta cuando llega a su posición.
+// Para ejecutarlo:
+//   java -jar target/benchmarks.jar SchedulerBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xms4g", "-Xmx4g"})
+public class SchedulerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int timers;
+
+    @Param({"timing-wheel", "scheduled-executor"})
+    private String scheduler;
+
+    @Benchmark
+    public void scheduleAndCancel(Blackhole blackhole) {
+        if ("timing-wheel".equals(this.scheduler)) {
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+                 var wheel = new VirtualThreadScheduler("benchmark", Duration.ofMillis(1), executor)) {
+                var tasks = new ScheduledTask[this.timers];
+                for (int i = 0; i < this.timers; i++) {
+                    tasks[i] = wheel.schedule(() -> {}, delay(i));
+                }
+                while (wheel.metrics().inWheel() < this.timers) {
+                    Thread.onSpinWait();
+                }
+                for (var task : tasks) {
+                    blackhole.consume(task.cancel());
+                }
+            }
+        } else {
+            var executor = new ScheduledThreadPoolExecutor(1);
+            executor.setRemoveOnCancelPolicy(true);
+            try (ScheduledExecutorService heap = executor) {
+                var tasks = new ScheduledFuture<?>[this.timers];
+                for (int i = 0; i < this.timers; i++) {
+                    tasks[i] = heap.schedule(() -> {}, delay(i).toNanos(), TimeUnit.NANOSECONDS);
+                }
+                for (var task : tasks) {
+                    blackhole.consume(task.cancel(false));
+                }
+            }
+        }
+    }
+
+    // Retrasos repartidos entre 1 s y 1 min.
+    private static Duration delay(int i) {
+        return Duration.ofMillis(1_000 + (i * 7_919L) % 59_000);
+    }
+}
@@ -0,0 +1,42 @@
+package com.jmunoz.benchmarks.sec07;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+
+// Primera versión del modo ordenado de sec07 ConcurrencyLimiter.
+// La mantenemos aquí solo para compararla con la versión actual (dispatcher) en ConcurrencyLimiterBenchmark.
+//
+// Cada submit() crea un virtual thread que se queda aparcado en semaphore.acquire() y luego ejecuta
+// la tarea que esté en la cabeza de la cola (no necesariamente la suya).
+public class ThreadPerTaskLimiter implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore semaphore;
+    private final Queue<Callable<?>> queue;
+
+    public ThreadPerTaskLimiter(ExecutorService executor, int limit) {
+        this.executor = executor;
+        this.semaphore = new Semaphore(limit);
+        this.queue = new ConcurrentLinkedDeque<>();
+    }
+
+    public <T> Future<T> submit(Callable<T> callable) {
+        this.queue.add(callable);
+        return executor.submit(() -> executeTask());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T executeTask() throws Exception {
+        semaphore.acquire();
+        try {
+            return (T) this.queue.poll().call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.executor.close();
+    }
+}
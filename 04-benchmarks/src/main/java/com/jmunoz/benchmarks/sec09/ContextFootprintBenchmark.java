@@ -0,0 +1,144 @@
+package com.jmunoz.benchmarks.sec09;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Memoria retenida por virtual thread según cómo le pasamos el contexto (sec09):
+//   - none: sin contexto. Es la referencia: lo que ocupa un virtual thread aparcado.
+//   - thread-local: cada thread hace set() de `values` ThreadLocals (Lec01ThreadLocal). Cada thread crea su
+//     propio ThreadLocalMap.
+//   - inheritable: el thread padre hace set() de `values` InheritableThreadLocals antes de crear los threads
+//     (Lec02InheritableThreadLocal). Cada hijo recibe una COPIA del mapa del padre al crearse.
+//   - scoped-value: cada thread enlaza `values` ScopedValues con where() (Lec04ScopedValue). No hay mapa:
+//     solo el binding, que desaparece al salir de run().
+//
+// Todos los valores son el mismo objeto inmutable, así que lo que medimos es el coste de la estructura, no el de
+// los valores. Creamos `threads` virtual threads, esperamos a que todos tengan su contexto y estén aparcados,
+// medimos el heap y los dejamos terminar. Lo que interesa son los contadores retainedMb y bytesPerThread
+// (restando el de none, lo que cuesta el contexto).
+//
+// Para ejecutarlo:
+//   java -jar target/benchmarks.jar ContextFootprintBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xms4g", "-Xmx4g"})
+public class ContextFootprintBenchmark {
+
+    private static final Object VALUE = "token";
+    private static final int MAX_VALUES = 8;
+
+    @SuppressWarnings("unchecked")
+    private static final ThreadLocal<Object>[] THREAD_LOCALS = new ThreadLocal[MAX_VALUES];
+    @SuppressWarnings("unchecked")
+    private static final InheritableThreadLocal<Object>[] INHERITABLE_THREAD_LOCALS = new InheritableThreadLocal[MAX_VALUES];
+    @SuppressWarnings("unchecked")
+    private static final ScopedValue<Object>[] SCOPED_VALUES = new ScopedValue[MAX_VALUES];
+
+    static {
+        for (int i = 0; i < MAX_VALUES; i++) {
+            THREAD_LOCALS[i] = new ThreadLocal<>();
+            INHERITABLE_THREAD_LOCALS[i] = new InheritableThreadLocal<>();
+            SCOPED_VALUES[i] = ScopedValue.newInstance();
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    private int threads;
+
+    @Param({"none", "thread-local", "inheritable", "scoped-value"})
+    private String context;
+
+    // Número de valores de contexto (usuario, request id, tenant...). Máximo MAX_VALUES.
+    @Param({"4"})
+    private int values;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public double retainedMb;
+        public double bytesPerThread;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.retainedMb = 0;
+            this.bytesPerThread = 0;
+        }
+    }
+
+    @Benchmark
+    public void footprint(Footprint footprint) throws Exception {
+        var ready = new CountDownLatch(this.threads);
+        var gate = new CountDownLatch(1);
+        var started = new Thread[this.threads];
+
+        var before = usedHeap();
+        if ("inheritable".equals(this.context)) {
+            for (int i = 0; i < this.values; i++) {
+                INHERITABLE_THREAD_LOCALS[i].set(VALUE);
+            }
+        }
+        try {
+            for (int i = 0; i < this.threads; i++) {
+                started[i] = Thread.ofVirtual().start(task(ready, gate));
+            }
+        } finally {
+            // El padre ya no los necesita. Los hijos conservan su copia.
+            for (int i = 0; i < this.values; i++) {
+                INHERITABLE_THREAD_LOCALS[i].remove();
+            }
+        }
+
+        ready.await();
+        var retained = usedHeap() - before;
+        footprint.retainedMb = retained / (1024.0 * 1024.0);
+        footprint.bytesPerThread = (double) retained / this.threads;
+
+        gate.countDown();
+        for (var thread : started) {
+            thread.join();
+        }
+    }
+
+    private Runnable task(CountDownLatch ready, CountDownLatch gate) {
+        Runnable park = () -> {
+            ready.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        return switch (this.context) {
+            case "thread-local" -> () -> {
+                for (int i = 0; i < this.values; i++) {
+                    THREAD_LOCALS[i].set(VALUE);
+                }
+                park.run();
+            };
+            case "scoped-value" -> () -> bind(park);
+            default -> park;
+        };
+    }
+
+    // where(A).where(B)... enlaza todos los valores a la vez, como haría un filtro con varios valores.
+    private void bind(Runnable park) {
+        var carrier = ScopedValue.where(SCOPED_VALUES[0], VALUE);
+        for (int i = 1; i < this.values; i++) {
+            carrier = carrier.where(SCOPED_VALUES[i], VALUE);
+        }
+        carrier.run(park);
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,41 @@
+package com.jmunoz.benchmarks.sec09;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste de leer el usuario conectado con ThreadLocal y con ScopedValue (sec09/security).
+// Usamos las clases del playground: AuthenticationService.loginAndExecute() ata el contexto y dentro
+// leemos LOOKUPS veces SecurityContextHolder.getContext().
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class ContextLookupBenchmark {
+
+    private static final int LOOKUPS = 1000;
+    private static final String PASSWORD = "password";
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void threadLocal(Blackhole blackhole) {
+        com.jmunoz.sec09.security.threadlocal.AuthenticationService.loginAndExecute(1, PASSWORD, () -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                blackhole.consume(com.jmunoz.sec09.security.threadlocal.SecurityContextHolder.getContext());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void scopedValue(Blackhole blackhole) {
+        com.jmunoz.sec09.security.scopedvalue.AuthenticationService.loginAndExecute(1, PASSWORD, () -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                blackhole.consume(com.jmunoz.sec09.security.scopedvalue.SecurityContextHolder.getContext());
+            }
+        });
+    }
+}
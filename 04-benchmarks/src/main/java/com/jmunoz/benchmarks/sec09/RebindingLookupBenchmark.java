@@ -0,0 +1,96 @@
+package com.jmunoz.benchmarks.sec09;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Coste de leer el valor de contexto cuando se ha vuelto a enlazar `depth` veces (Lec06ScopedValueRebinding).
+//   - ScopedValue: where(TOKEN, ...).run(...) anidados.
+//   - ThreadLocal: el equivalente a mano: set() del nuevo valor, ejecutar y restaurar el anterior en el finally.
+//
+// lookup: LOOKUPS lecturas en el nivel más profundo (ns por lectura). Después de la primera lectura,
+//         ScopedValue tiene el valor en su caché por thread.
+// rebind: enlazar los `depth` niveles y hacer UNA lectura. Incluye la primera lectura, que es la que tiene que
+//         buscar el binding, sin ayuda de la caché (ns por operación completa).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--enable-preview")
+public class RebindingLookupBenchmark {
+
+    private static final int LOOKUPS = 1000;
+    private static final ScopedValue<String> TOKEN = ScopedValue.newInstance();
+    private static final ThreadLocal<String> TOKEN_HOLDER = new ThreadLocal<>();
+
+    @Param({"1", "4", "16"})
+    private int depth;
+
+    private String[] tokens;
+
+    @Setup
+    public void setup() {
+        this.tokens = new String[this.depth];
+        for (int i = 0; i < this.depth; i++) {
+            this.tokens[i] = "token-" + i;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void scopedValueLookup(Blackhole blackhole) {
+        scoped(0, () -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                blackhole.consume(TOKEN.get());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void threadLocalLookup(Blackhole blackhole) {
+        threadLocal(0, () -> {
+            for (int i = 0; i < LOOKUPS; i++) {
+                blackhole.consume(TOKEN_HOLDER.get());
+            }
+        });
+    }
+
+    @Benchmark
+    public void scopedValueRebind(Blackhole blackhole) {
+        scoped(0, () -> blackhole.consume(TOKEN.get()));
+    }
+
+    @Benchmark
+    public void threadLocalRebind(Blackhole blackhole) {
+        threadLocal(0, () -> blackhole.consume(TOKEN_HOLDER.get()));
+    }
+
+    private void scoped(int level, Runnable runnable) {
+        if (level == this.depth) {
+            runnable.run();
+            return;
+        }
+        ScopedValue.where(TOKEN, this.tokens[level]).run(() -> scoped(level + 1, runnable));
+    }
+
+    private void threadLocal(int level, Runnable runnable) {
+        if (level == this.depth) {
+            runnable.run();
+            return;
+        }
+        var previous = TOKEN_HOLDER.get();
+        TOKEN_HOLDER.set(this.tokens[level]);
+        try {
+            threadLocal(level + 1, runnable);
+        } finally {
+            if (previous == null) {
+                TOKEN_HOLDER.remove();
+            } else {
+                TOKEN_HOLDER.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.jmunoz.external_services;
+
+import com.jmunoz.external_services.handler.AdminHandler;
+import com.jmunoz.external_services.handler.MockHandler;
+import com.jmunoz.external_services.handler.Response;
+import com.jmunoz.external_services.mock.FlightMocks;
+import com.jmunoz.external_services.mock.ProductMocks;
+import com.jmunoz.external_services.mock.TripPlanningMocks;
+import com.jmunoz.external_services.profile.ProfileRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+
+// Sustituto local de external-services.jar con los mismos endpoints:
+//   /sec01/product/{id}, /sec01/rating/{id}, /sec02/*/{airportCode}, /sec03/flight/search/{from}/{to}, /sec03/flight/reserve
+// Y además, solo aquí, las versiones con varios ids de sec01: /sec01/products/{ids} y /sec01/ratings/{ids} (ids=1,2,3).
+//
+// Usa el HttpServer de la JDK con un virtual thread por petición, así que la latencia simulada (Thread.sleep)
+// no limita cuántas peticiones podemos atender a la vez.
+//
+// Para ejecutarlo:
+//   java -jar target/local-external-services.jar [--server.port=7070] [--profiles=mis-perfiles.properties]
+public class ExternalServicesApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalServicesApplication.class);
+
+    static void main(String[] args) throws IOException {
+        var port = Integer.parseInt(argument(args, "--server.port", "7070"));
+        var registry = new ProfileRegistry(loadProfiles(argument(args, "--profiles", null)));
+
+        var server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+
+        server.createContext("/sec01/product", new MockHandler("GET", 1, registry.get("sec01/product"),
+                (params, body) -> Response.text(ProductMocks.product(Integer.parseInt(params.getFirst())))));
+        server.createContext("/sec01/rating", new MockHandler("GET", 1, registry.get("sec01/rating"),
+                (params, body) -> Response.text(ProductMocks.rating(Integer.parseInt(params.getFirst())))));
+        server.createContext("/sec01/products", new MockHandler("GET", 1, registry.get("sec01/products"),
+                (params, body) -> Response.text(ProductMocks.products(params.getFirst()))));
+        server.createContext("/sec01/ratings", new MockHandler("GET", 1, registry.get("sec01/ratings"),
+                (params, body) -> Response.text(ProductMocks.ratings(params.getFirst()))));
+
+        server.createContext("/sec02/accommodations", new MockHandler("GET", 1, registry.get("sec02/accommodations"),
+                (params, body) -> Response.json(TripPlanningMocks.accommodations(params.getFirst()))));
+        server.createContext("/sec02/events", new MockHandler("GET", 1, registry.get("sec02/events"),
+                (params, body) -> Response.json(TripPlanningMocks.events(params.getFirst()))));
+        server.createContext("/sec02/local-recommendations", new MockHandler("GET", 1, registry.get("sec02/local-recommendations"),
+                (params, body) -> Response.json(TripPlanningMocks.localRecommendations(params.getFirst()))));
+        server.createContext("/sec02/transportation", new MockHandler("GET", 1, registry.get("sec02/transportation"),
+                (params, body) -> Response.json(TripPlanningMocks.transportation(params.getFirst()))));
+        server.createContext("/sec02/weather", new MockHandler("GET", 1, registry.get("sec02/weather"),
+                (params, body) -> Response.json(TripPlanningMocks.weather(params.getFirst()))));
+
+        server.createContext("/sec03/flight/search", new MockHandler("GET", 2, registry.get("sec03/flight/search"),
+                (params, body) -> Response.json(FlightMocks.search(params.get(0), params.get(1)))));
+        server.createContext("/sec03/flight/reserve", new MockHandler("POST", 0, registry.get("sec03/flight/reserve"),
+                (params, body) -> Response.json(FlightMocks.reserve(body))));
+
+        server.createContext("/admin/profiles", new AdminHandler(registry));
+
+        server.start();
+        log.info("local external services started on port {}", port);
+        registry.all().forEach((name, profile) -> log.info("{} => {}", name, profile.settings()));
+    }
+
+    // --name=value
+    private static String argument(String[] args, String name, String defaultValue) {
+        for (var arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+
+    // Sin --profiles usamos el profiles.properties del classpath.
+    private static Properties loadProfiles(String file) throws IOException {
+        var properties = new Properties();
+        try (InputStream in = file == null
+                ? ExternalServicesApplication.class.getResourceAsStream("/profiles.properties")
+                : Files.newInputStream(Path.of(file))) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jmunoz.external_services.handler;
+
+import com.jmunoz.external_services.profile.EndpointProfile;
+import com.jmunoz.external_services.profile.ProfileRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Cambia los perfiles en tiempo de ejecución.
+//
+//   GET  /admin/profiles                              todos los perfiles y sus contadores
+//   POST /admin/profiles/sec02/weather?latency=lognormal:150ms,0.6&error-rate=0.1&max-concurrency=20
+//
+// En el POST solo se cambia lo que venga en la query (mismos nombres que en profiles.properties).
+public class AdminHandler implements HttpHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminHandler.class);
+    private static final String PATH = "/admin/profiles";
+
+    private final ProfileRegistry registry;
+
+    public AdminHandler(ProfileRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            MockHandler.send(exchange, process(exchange));
+        }
+    }
+
+    private Response process(HttpExchange exchange) {
+        var uri = exchange.getRequestURI();
+        var endpoint = uri.getPath().substring(PATH.length()).replaceAll("^/+|/+$", "");
+
+        if ("GET".equals(exchange.getRequestMethod()) && endpoint.isEmpty()) {
+            return Response.json(this.registry.all().values().stream()
+                    .map(AdminHandler::toJson)
+                    .collect(Collectors.joining(",", "[", "]")));
+        }
+
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return Response.error(405, "Method not allowed");
+        }
+        var profile = this.registry.get(endpoint);
+        if (profile == null) {
+            return Response.error(404, "Unknown endpoint: " + endpoint);
+        }
+        try {
+            profile.update(ProfileRegistry.merge(profile.settings(), query(uri.getRawQuery())));
+            log.info("{} => {}", endpoint, profile.settings());
+            return Response.json(toJson(profile));
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        var values = new HashMap<String, String>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return values;
+        }
+        for (var pair : rawQuery.split("&")) {
+            var index = pair.indexOf('=');
+            if (index > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    private static String toJson(EndpointProfile profile) {
+        var settings = profile.settings();
+        return """
+                {"endpoint":"%s","latency":"%s","errorRate":%s,"maxConcurrency":%d,"rejectWhenBusy":%b,"seed":%d,\
+                "requests":%d,"injectedErrors":%d,"rejected":%d}""".formatted(
+                profile.name(), settings.latency(), settings.errorRate(), settings.maxConcurrency(),
+                settings.rejectWhenBusy(), settings.seed(), profile.requests(), profile.injectedErrors(), profile.rejected());
+    }
+}
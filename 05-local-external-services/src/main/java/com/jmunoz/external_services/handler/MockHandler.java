@@ -0,0 +1,100 @@
+package com.jmunoz.external_services.handler;
+
+import com.jmunoz.external_services.profile.EndpointProfile;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// Atiende un endpoint aplicando su perfil:
+//   1. Límite de concurrencia: espera (o 503 si rejectWhenBusy).
+//   2. Latencia: Thread.sleep() con la latencia que le toca. Cada petición corre en su propio virtual thread,
+//      así que dormir no cuesta nada.
+//   3. Error inyectado: 500.
+//   4. Respuesta del mock.
+public class MockHandler implements HttpHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(MockHandler.class);
+
+    // Recibe los segmentos del path que van después del endpoint (/sec02/weather/LAS -> [LAS]) y el body.
+    @FunctionalInterface
+    public interface Responder {
+        Response respond(List<String> params, String body);
+    }
+
+    private final String path;
+    private final String method;
+    private final int paramCount;
+    private final EndpointProfile profile;
+    private final Responder responder;
+
+    public MockHandler(String method, int paramCount, EndpointProfile profile, Responder responder) {
+        this.path = "/" + profile.name();
+        this.method = method;
+        this.paramCount = paramCount;
+        this.profile = profile;
+        this.responder = responder;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, process(exchange));
+        }
+    }
+
+    private Response process(HttpExchange exchange) throws IOException {
+        if (!this.method.equals(exchange.getRequestMethod())) {
+            return Response.error(405, "Method not allowed");
+        }
+        var params = params(exchange.getRequestURI().getPath());
+        if (params.size() != this.paramCount) {
+            return Response.error(404, "Not found");
+        }
+        var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        try (var admission = this.profile.admit()) {
+            if (admission == null) {
+                return Response.error(503, "Service busy");
+            }
+            Thread.sleep(admission.latency());
+            if (admission.fail()) {
+                return Response.error(500, "Injected error");
+            }
+            return this.responder.respond(params, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.error(503, "Interrupted");
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        } catch (Exception e) {
+            log.error("error", e);
+            return Response.error(500, e.getMessage());
+        }
+    }
+
+    // Los clientes a veces mandan // (baseUrl terminada en / más un uri que empieza por /). Ignoramos los vacíos.
+    private List<String> params(String requestPath) {
+        var normalized = requestPath.replaceAll("/+", "/");
+        if (!normalized.startsWith(this.path)) {
+            return List.of();
+        }
+        return Arrays.stream(normalized.substring(this.path.length()).split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .toList();
+    }
+
+    static void send(HttpExchange exchange, Response response) throws IOException {
+        var bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        exchange.sendResponseHeaders(response.status(), bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.jmunoz.external_services.handler;
+
+public record Response(int status, String contentType, String body) {
+
+    public static Response json(String body) {
+        return new Response(200, "application/json", body);
+    }
+
+    public static Response text(String body) {
+        return new Response(200, "text/plain", body);
+    }
+
+    public static Response error(int status, String message) {
+        return new Response(status, "text/plain", message);
+    }
+}
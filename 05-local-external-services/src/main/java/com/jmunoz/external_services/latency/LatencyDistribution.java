@@ -0,0 +1,133 @@
+package com.jmunoz.external_services.latency;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+// Distribución de la latencia de un endpoint.
+// Se escribe como texto (en profiles.properties o en /admin/profiles):
+//
+//   fixed:200ms                        siempre 200ms
+//   uniform:100ms..1s                  cualquier valor entre 100ms y 1s
+//   lognormal:150ms,0.6                log-normal con mediana 150ms y sigma 0.6 (cola larga, como la realidad)
+//   bimodal:0.05,fixed:100ms,fixed:3s  el 5% de las peticiones usa la segunda distribución (brownout)
+public sealed interface LatencyDistribution {
+
+    Duration sample(RandomGenerator random);
+
+    record Fixed(Duration value) implements LatencyDistribution {
+
+        @Override
+        public Duration sample(RandomGenerator random) {
+            return this.value;
+        }
+
+        @Override
+        public String toString() {
+            return "fixed:" + format(this.value);
+        }
+    }
+
+    record Uniform(Duration min, Duration max) implements LatencyDistribution {
+
+        @Override
+        public Duration sample(RandomGenerator random) {
+            var min = this.min.toNanos();
+            var max = this.max.toNanos();
+            return min >= max ? this.min : Duration.ofNanos(random.nextLong(min, max + 1));
+        }
+
+        @Override
+        public String toString() {
+            return "uniform:" + format(this.min) + ".." + format(this.max);
+        }
+    }
+
+    record LogNormal(Duration median, double sigma) implements LatencyDistribution {
+
+        @Override
+        public Duration sample(RandomGenerator random) {
+            // Si X es normal(0, sigma), median * e^X es log-normal con esa mediana.
+            var nanos = this.median.toNanos() * Math.exp(this.sigma * random.nextGaussian());
+            return Duration.ofNanos((long) Math.min(nanos, Duration.ofMinutes(1).toNanos()));
+        }
+
+        @Override
+        public String toString() {
+            return "lognormal:" + format(this.median) + "," + this.sigma;
+        }
+    }
+
+    record Bimodal(double slowRatio, LatencyDistribution fast, LatencyDistribution slow) implements LatencyDistribution {
+
+        @Override
+        public Duration sample(RandomGenerator random) {
+            return random.nextDouble() < this.slowRatio ? this.slow.sample(random) : this.fast.sample(random);
+        }
+
+        @Override
+        public String toString() {
+            return "bimodal:" + this.slowRatio + "," + this.fast + "," + this.slow;
+        }
+    }
+
+    static LatencyDistribution parse(String text) {
+        var value = text.trim();
+        var colon = value.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalid latency: " + text);
+        }
+        var type = value.substring(0, colon);
+        var args = value.substring(colon + 1);
+        return switch (type) {
+            case "fixed" -> new Fixed(parseDuration(args));
+            case "uniform" -> {
+                var range = args.split("\\.\\.");
+                if (range.length != 2) {
+                    throw new IllegalArgumentException("Invalid uniform latency: " + text);
+                }
+                yield new Uniform(parseDuration(range[0]), parseDuration(range[1]));
+            }
+            case "lognormal" -> {
+                var parts = args.split(",");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid lognormal latency: " + text);
+                }
+                yield new LogNormal(parseDuration(parts[0]), Double.parseDouble(parts[1].trim()));
+            }
+            case "bimodal" -> {
+                // bimodal:<ratio>,<fast>,<slow>. fast y slow no pueden ser bimodal ni lognormal (llevan comas),
+                // salvo slow, que es el resto del texto.
+                var first = args.indexOf(',');
+                var second = args.indexOf(',', first + 1);
+                if (first < 0 || second < 0) {
+                    throw new IllegalArgumentException("Invalid bimodal latency: " + text);
+                }
+                yield new Bimodal(
+                        Double.parseDouble(args.substring(0, first).trim()),
+                        parse(args.substring(first + 1, second)),
+                        parse(args.substring(second + 1))
+                );
+            }
+            default -> throw new IllegalArgumentException("Unknown latency type: " + type);
+        };
+    }
+
+    // 250ms, 2s, 1m
+    static Duration parseDuration(String text) {
+        var value = text.trim();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Invalid duration: " + text);
+    }
+
+    private static String format(Duration duration) {
+        return duration.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,48 @@
+package com.jmunoz.external_services.mock;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// /sec03/flight/search/{departure}/{arrival} y POST /sec03/flight/reserve
+public final class FlightMocks {
+
+    private static final List<String> AIRLINES = List.of("Delta", "American Airlines", "United", "Frontier", "JetBlue");
+
+    private FlightMocks() {
+    }
+
+    public static String search(String departure, String arrival) {
+        var seed = Math.floorMod((departure + arrival).hashCode(), 1000);
+        var today = LocalDate.now();
+        return Json.array(List.of(0, 1, 2, 3, 4), i -> """
+                {"flightNumber":%s,"airline":%s,"price":%d,"date":%s,"flightDurationInMinutes":%d}""".formatted(
+                Json.string(flightNumber(departure, arrival, i)), Json.string(AIRLINES.get((seed + i) % AIRLINES.size())),
+                100 + (seed * (i + 3)) % 500, Json.string(today.plusDays(i).toString()), 60 + (seed + i * 45) % 300));
+    }
+
+    // El body es un FlightReservationRequest. Solo necesitamos sus campos de texto, así que no usamos un parser JSON.
+    public static String reserve(String body) {
+        var departure = field(body, "departure");
+        var arrival = field(body, "arrival");
+        var flightNumber = field(body, "flightNumber");
+        var price = 100 + Math.floorMod(flightNumber.hashCode(), 500);
+        return """
+                {"reservationId":%s,"departure":%s,"arrival":%s,"flightNumber":%s,"tripDate":%s,"price":%d}""".formatted(
+                Json.string(UUID.randomUUID().toString()), Json.string(departure), Json.string(arrival),
+                Json.string(flightNumber), Json.string(field(body, "tripDate")), price);
+    }
+
+    private static String flightNumber(String departure, String arrival, int i) {
+        return departure.charAt(0) + "" + arrival.charAt(0) + (100 + i);
+    }
+
+    private static String field(String json, String name) {
+        var matcher = Pattern.compile("\"" + name + "\"\\s*:\\s*\"([^\"]*)\"").matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Missing field: " + name);
+        }
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.jmunoz.external_services.mock;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Las respuestas son pequeñas y fijas, así que escribimos el JSON a mano y no necesitamos ninguna dependencia.
+final class Json {
+
+    private Json() {
+    }
+
+    static String string(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    static <T> String array(List<T> items, Function<T, String> toJson) {
+        return items.stream().map(toJson).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    static String strings(List<String> items) {
+        return array(items, Json::string);
+    }
+}
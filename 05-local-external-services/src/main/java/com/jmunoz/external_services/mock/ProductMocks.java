@@ -0,0 +1,56 @@
+package com.jmunoz.external_services.mock;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// /sec01/product/{id} y /sec01/rating/{id}. Respuestas en texto plano, como las de external-services.jar.
+// /sec01/products/{ids} y /sec01/ratings/{ids}: varios ids separados por comas en una sola petición.
+// Responden una línea id=valor por cada id (no existen en external-services.jar).
+public final class ProductMocks {
+
+    private static final List<String> PRODUCTS = List.of(
+            "Small Steel Chair", "Ergonomic Wooden Table", "Rustic Cotton Shirt", "Sleek Granite Lamp",
+            "Durable Leather Bag", "Lightweight Paper Clock", "Gorgeous Copper Knife", "Heavy Duty Wool Coat",
+            "Incredible Plastic Watch", "Mediocre Silk Gloves"
+    );
+
+    public static final int MAX_BATCH = 1000;
+
+    private ProductMocks() {
+    }
+
+    public static String product(int id) {
+        return PRODUCTS.get(Math.floorMod(id, PRODUCTS.size()));
+    }
+
+    // Entre 1 y 5
+    public static String rating(int id) {
+        return String.valueOf(Math.floorMod(id, 5) + 1);
+    }
+
+    public static String products(String ids) {
+        return batch(ids, ProductMocks::product);
+    }
+
+    public static String ratings(String ids) {
+        return batch(ids, ProductMocks::rating);
+    }
+
+    // Un id que no es un número lanza NumberFormatException (IllegalArgumentException), que MockHandler convierte en 400.
+    private static String batch(String ids, IntFunction<String> value) {
+        var parsed = Arrays.stream(ids.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        if (parsed.length > MAX_BATCH) {
+            throw new IllegalArgumentException("Too many ids: " + parsed.length + " (max " + MAX_BATCH + ")");
+        }
+        return Arrays.stream(parsed)
+                .distinct()
+                .mapToObj(id -> id + "=" + value.apply(id))
+                .collect(Collectors.joining("\n"));
+    }
+}
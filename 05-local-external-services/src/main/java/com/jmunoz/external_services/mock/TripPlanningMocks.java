@@ -0,0 +1,57 @@
+package com.jmunoz.external_services.mock;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// /sec02/*/{airportCode}. Los datos dependen del código de aeropuerto para que cada uno tenga su respuesta,
+// pero siempre la misma.
+public final class TripPlanningMocks {
+
+    private static final List<String> CONDITIONS = List.of("Sunny", "Cloudy", "Rainy", "Windy", "Snowy");
+
+    private TripPlanningMocks() {
+    }
+
+    public static String accommodations(String airportCode) {
+        var seed = seed(airportCode);
+        return Json.array(List.of("Hotel", "Hostel", "Apartment"), type -> """
+                {"name":%s,"type":%s,"price":%d,"rating":%s}""".formatted(
+                Json.string(airportCode + " " + type), Json.string(type), 50 + (seed + type.length() * 37) % 250,
+                (30 + (seed + type.length()) % 20) / 10.0));
+    }
+
+    public static String events(String airportCode) {
+        var today = LocalDate.now();
+        return Json.array(List.of(1, 2, 3), i -> """
+                {"name":%s,"description":%s,"date":%s}""".formatted(
+                Json.string(airportCode + " Festival " + i), Json.string("Event " + i + " in " + airportCode),
+                Json.string(today.plusDays(i * 7L).toString())));
+    }
+
+    public static String localRecommendations(String airportCode) {
+        return """
+                {"restaurants":%s,"sightseeing":%s}""".formatted(
+                Json.strings(List.of(airportCode + " Grill", airportCode + " Sushi", airportCode + " Bistro")),
+                Json.strings(List.of(airportCode + " Museum", airportCode + " Old Town", airportCode + " Park")));
+    }
+
+    public static String transportation(String airportCode) {
+        var seed = seed(airportCode);
+        return """
+                {"carRentals":%s,"publicTransportations":%s}""".formatted(
+                Json.array(List.of("Hertz", "Avis", "Enterprise"), agency -> """
+                        {"agency":%s,"price":%d}""".formatted(Json.string(agency), 30 + (seed + agency.length() * 11) % 70)),
+                Json.array(List.of("Bus", "Metro"), type -> """
+                        {"type":%s,"price":%s}""".formatted(Json.string(type), 1.5 + (seed % 5) / 2.0)));
+    }
+
+    public static String weather(String airportCode) {
+        var seed = seed(airportCode);
+        return """
+                {"temperature":%d,"conditions":%s}""".formatted(seed % 40, Json.string(CONDITIONS.get(seed % CONDITIONS.size())));
+    }
+
+    private static int seed(String airportCode) {
+        return Math.floorMod(airportCode.hashCode(), 1000);
+    }
+}
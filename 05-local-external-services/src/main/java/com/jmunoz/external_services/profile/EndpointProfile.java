@@ -0,0 +1,97 @@
+package com.jmunoz.external_services.profile;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Configuración de un endpoint que se puede cambiar en tiempo de ejecución (ver AdminHandler).
+//
+// Cuando cambian los settings creamos un semáforo nuevo. Las peticiones en curso devuelven su permit al semáforo
+// con el que entraron (Admission), así que el cambio no deja permits perdidos.
+public class EndpointProfile {
+
+    // Para repartir bien las semillas de peticiones consecutivas.
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final String name;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // Settings y semáforo van juntos para que una petición nunca vea los settings nuevos con el semáforo viejo.
+    private volatile State state;
+
+    public EndpointProfile(String name, Settings settings) {
+        this.name = name;
+        update(settings);
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public Settings settings() {
+        return this.state.settings();
+    }
+
+    // Cambiar los settings también reinicia la secuencia, para que el escenario empiece siempre igual.
+    public void update(Settings settings) {
+        this.state = new State(settings, settings.maxConcurrency() > 0 ? new Semaphore(settings.maxConcurrency(), true) : null);
+        this.sequence.set(0);
+    }
+
+    // Devuelve null si la petición se rechaza (rejectWhenBusy).
+    public Admission admit() throws InterruptedException {
+        this.requests.increment();
+        var state = this.state;
+        var settings = state.settings();
+        var permits = state.permits();
+        if (permits != null) {
+            if (settings.rejectWhenBusy()) {
+                if (!permits.tryAcquire()) {
+                    this.rejected.increment();
+                    return null;
+                }
+            } else {
+                permits.acquire();
+            }
+        }
+
+        var random = new SplittableRandom(settings.seed() + this.sequence.getAndIncrement() * GOLDEN_GAMMA);
+        var latency = settings.latency().sample(random);
+        var fail = random.nextDouble() < settings.errorRate();
+        if (fail) {
+            this.injectedErrors.increment();
+        }
+        return new Admission(permits, latency, fail);
+    }
+
+    public long requests() {
+        return this.requests.sum();
+    }
+
+    public long injectedErrors() {
+        return this.injectedErrors.sum();
+    }
+
+    public long rejected() {
+        return this.rejected.sum();
+    }
+
+    private record State(Settings settings, Semaphore permits) {
+    }
+
+    // Lo que le toca a una petición: cuánto tarda y si falla.
+    // close() devuelve el permit.
+    public record Admission(Semaphore permits, Duration latency, boolean fail) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            if (this.permits != null) {
+                this.permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.jmunoz.external_services.profile;
+
+import com.jmunoz.external_services.latency.LatencyDistribution;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// Perfiles de todos los endpoints, creados a partir de profiles.properties:
+//
+//   <endpoint>.latency=lognormal:150ms,0.6
+//   <endpoint>.error-rate=0.02
+//   <endpoint>.max-concurrency=50
+//   <endpoint>.reject-when-busy=false
+//   <endpoint>.seed=42
+//
+// Lo que no se indique para un endpoint se toma de default.*
+public class ProfileRegistry {
+
+    public static final List<String> ENDPOINTS = List.of(
+            "sec01/product",
+            "sec01/rating",
+            "sec01/products",
+            "sec01/ratings",
+            "sec02/accommodations",
+            "sec02/events",
+            "sec02/local-recommendations",
+            "sec02/transportation",
+            "sec02/weather",
+            "sec03/flight/search",
+            "sec03/flight/reserve"
+    );
+
+    private final Map<String, EndpointProfile> profiles = new LinkedHashMap<>();
+
+    public ProfileRegistry(Properties properties) {
+        for (var endpoint : ENDPOINTS) {
+            this.profiles.put(endpoint, new EndpointProfile(endpoint, settings(properties, endpoint)));
+        }
+    }
+
+    public EndpointProfile get(String endpoint) {
+        return this.profiles.get(endpoint);
+    }
+
+    public Map<String, EndpointProfile> all() {
+        return this.profiles;
+    }
+
+    // Aplica sobre los settings actuales los valores que vengan en el mapa (mismos nombres que en el properties).
+    public static Settings merge(Settings current, Map<String, String> values) {
+        return new Settings(
+                values.containsKey("latency") ? LatencyDistribution.parse(values.get("latency")) : current.latency(),
+                values.containsKey("error-rate") ? Double.parseDouble(values.get("error-rate")) : current.errorRate(),
+                values.containsKey("max-concurrency") ? Integer.parseInt(values.get("max-concurrency")) : current.maxConcurrency(),
+                values.containsKey("reject-when-busy") ? Boolean.parseBoolean(values.get("reject-when-busy")) : current.rejectWhenBusy(),
+                values.containsKey("seed") ? Long.parseLong(values.get("seed")) : current.seed()
+        );
+    }
+
+    private static Settings settings(Properties properties, String endpoint) {
+        return new Settings(
+                LatencyDistribution.parse(value(properties, endpoint, "latency", "fixed:0ms")),
+                Double.parseDouble(value(properties, endpoint, "error-rate", "0")),
+                Integer.parseInt(value(properties, endpoint, "max-concurrency", "0")),
+                Boolean.parseBoolean(value(properties, endpoint, "reject-when-busy", "false")),
+                Long.parseLong(value(properties, endpoint, "seed", "42"))
+        );
+    }
+
+    private static String value(Properties properties, String endpoint, String key, String defaultValue) {
+        return properties.getProperty(endpoint + "." + key, properties.getProperty("default." + key, defaultValue));
+    }
+}
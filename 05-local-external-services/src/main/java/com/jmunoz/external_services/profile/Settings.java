@@ -0,0 +1,17 @@
+package com.jmunoz.external_services.profile;
+
+import com.jmunoz.external_services.latency.LatencyDistribution;
+
+// Comportamiento de un endpoint.
+//   latency: distribución de la latencia (ver LatencyDistribution).
+//   errorRate: proporción de peticiones que devuelven 500 (0.02 = 2%).
+//   maxConcurrency: máximo de peticiones atendidas a la vez. 0 = sin límite.
+//   rejectWhenBusy: al llegar a maxConcurrency, true devuelve 503 y false deja la petición esperando (cola).
+//   seed: semilla de los números aleatorios. Con la misma semilla, la petición N siempre tiene la misma latencia
+//         y el mismo resultado (error o no), así que los escenarios se pueden reproducir.
+public record Settings(LatencyDistribution latency,
+                       double errorRate,
+                       int maxConcurrency,
+                       boolean rejectWhenBusy,
+                       long seed) {
+}
@@ -0,0 +1,134 @@
+package com.jmunoz.load_test;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+// Prueba de carga de trip-advisor en lazo abierto (ver OpenLoopRunner), comparando varias instancias a la vez.
+// Lo normal es arrancar dos instancias de trip-advisor, una con virtual threads y otra con platform threads:
+//
+//   java -jar trip-advisor.jar --server.port=8080 --spring.threads.virtual.enabled=true
+//   java -jar trip-advisor.jar --server.port=8081 --spring.threads.virtual.enabled=false
+//
+//   java -jar target/load-test.jar --targets=virtual=http://localhost:8080,platform=http://localhost:8081 \
+//        --scenarios=plan,reserve --rate=200 --duration=60s --warmup=10s
+//
+// Los targets se prueban uno detrás de otro (nunca a la vez, para no repartir la CPU de la máquina).
+// Al final se imprime una tabla con los resultados de cada target lado a lado, y en results/ se guarda
+// la distribución completa de latencias de cada ejecución (.hgrm, se puede dibujar con HdrHistogram Plotter).
+public class LoadTestApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    static void main(String[] args) throws Exception {
+        var targets = targets(argument(args, "--targets", "virtual=http://localhost:8080"));
+        var scenarios = scenarios(argument(args, "--scenarios", "plan"));
+        var rate = Integer.parseInt(argument(args, "--rate", "100"));
+        var duration = seconds(argument(args, "--duration", "30s"));
+        var warmup = seconds(argument(args, "--warmup", "10s"));
+        var resultsDir = Path.of(argument(args, "--results", "results"));
+
+        var client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var runner = new OpenLoopRunner(client);
+
+        var reports = new ArrayList<Report>();
+        for (var scenario : scenarios) {
+            for (var target : targets.entrySet()) {
+                if (!warmup.isZero()) {
+                    runner.run(target.getKey() + " (warm-up)", target.getValue(), scenario, rate, warmup);
+                }
+                var report = runner.run(target.getKey(), target.getValue(), scenario, rate, duration);
+                save(report, resultsDir);
+                reports.add(report);
+            }
+        }
+        print(reports, System.out);
+    }
+
+    private static void print(List<Report> reports, PrintStream out) {
+        var columns = reports.stream().map(r -> r.target() + " " + r.scenario().name().toLowerCase(Locale.ROOT)).toList();
+        out.println();
+        row(out, "", columns);
+        row(out, "rate (req/s)", reports.stream().map(r -> String.valueOf(r.rate())).toList());
+        row(out, "sent", reports.stream().map(r -> String.valueOf(r.sent())).toList());
+        row(out, "errors", reports.stream().map(r -> String.valueOf(r.errors())).toList());
+        row(out, "throughput (req/s)", reports.stream().map(r -> format(r.throughput())).toList());
+        for (var percentile : List.of(50.0, 90.0, 99.0, 99.9)) {
+            row(out, "p" + format(percentile) + " (ms)", reports.stream().map(r -> format(r.percentileMillis(percentile))).toList());
+        }
+        row(out, "max (ms)", reports.stream().map(r -> format(r.maxMillis())).toList());
+        row(out, "max in-flight", reports.stream().map(r -> String.valueOf(r.maxInFlight())).toList());
+        row(out, "max server threads", reports.stream().map(r -> format(r.maxThreads())).toList());
+        row(out, "max server heap (MB)", reports.stream().map(r -> format(r.maxHeapMb())).toList());
+    }
+
+    private static void row(PrintStream out, String name, List<String> values) {
+        var line = new StringBuilder("%-22s".formatted(name));
+        values.forEach(value -> line.append("%20s".formatted(value)));
+        out.println(line);
+    }
+
+    private static String format(double value) {
+        return value == (long) value ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    // Distribución de latencias en milisegundos.
+    private static void save(Report report, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        var file = dir.resolve(report.target() + "-" + report.scenario().name().toLowerCase(Locale.ROOT) + ".hgrm");
+        try (var out = new PrintStream(Files.newOutputStream(file))) {
+            report.latency().outputPercentileDistribution(out, 1000.0);
+        }
+        log.info("latency distribution saved in {}", file);
+    }
+
+    // name=url,name=url
+    private static Map<String, String> targets(String value) {
+        var targets = new LinkedHashMap<String, String>();
+        for (var target : value.split(",")) {
+            var parts = target.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid target: " + target);
+            }
+            targets.put(parts[0].trim(), parts[1].trim().replaceAll("/+$", ""));
+        }
+        return targets;
+    }
+
+    private static List<Scenario> scenarios(String value) {
+        var scenarios = new ArrayList<Scenario>();
+        for (var scenario : value.split(",")) {
+            scenarios.add(Scenario.valueOf(scenario.trim().toUpperCase(Locale.ROOT)));
+        }
+        return scenarios;
+    }
+
+    private static Duration seconds(String value) {
+        return Duration.ofSeconds(Long.parseLong(value.trim().replaceAll("s$", "")));
+    }
+
+    // --name=value
+    private static String argument(String[] args, String name, String defaultValue) {
+        for (var arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+}
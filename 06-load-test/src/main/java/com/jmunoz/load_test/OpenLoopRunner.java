@@ -0,0 +1,105 @@
+package com.jmunoz.load_test;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Generador de carga en lazo abierto (open-loop): las peticiones salen a un ritmo constante (rate por segundo),
+// respondan o no las anteriores. Es como llegan los usuarios reales.
+//
+// JMeter (y cualquier generador en lazo cerrado) espera la respuesta antes de mandar la siguiente petición:
+// si el servidor se atasca, el generador también baja el ritmo y las latencias que vemos son mejores que las
+// reales (coordinated omission). Aquí cada petición sale en su propio virtual thread en el instante que le toca,
+// y la latencia se mide desde ese instante, no desde que el thread consiguió enviarla.
+class OpenLoopRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenLoopRunner.class);
+
+    private final HttpClient client;
+
+    OpenLoopRunner(HttpClient client) {
+        this.client = client;
+    }
+
+    Report run(String target, String baseUrl, Scenario scenario, int rate, Duration duration) throws InterruptedException {
+        var latency = new ConcurrentHistogram(3);
+        var errors = new LongAdder();
+        var inFlight = new AtomicLong();
+        var maxInFlight = new AtomicLong();
+        var request = scenario.request(baseUrl);
+
+        var metrics = new ServerMetrics(this.client, baseUrl);
+        var sampler = new MetricsSampler(metrics);
+        var samplerThread = Thread.ofVirtual().start(sampler);
+
+        var interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        var total = rate * duration.toSeconds();
+        var start = System.nanoTime();
+        log.info("{}: {} {} req/s during {}s", target, scenario, rate, duration.toSeconds());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                var intended = start + i * interval;
+                var wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        var response = this.client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.increment();
+                        }
+                    } catch (Exception e) {
+                        errors.increment();
+                    } finally {
+                        inFlight.decrementAndGet();
+                        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+                    }
+                });
+            }
+        }
+
+        var elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        samplerThread.interrupt();
+        samplerThread.join();
+
+        return new Report(target, scenario, rate, total, errors.sum(), elapsed, latency, maxInFlight.get(),
+                sampler.maxThreads, sampler.maxHeapMb);
+    }
+
+    // Cada segundo lee threads y heap de la aplicación y se queda con los máximos.
+    private static final class MetricsSampler implements Runnable {
+
+        private final ServerMetrics metrics;
+        private volatile double maxThreads = -1;
+        private volatile double maxHeapMb = -1;
+
+        private MetricsSampler(ServerMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                this.maxThreads = Math.max(this.maxThreads, this.metrics.liveThreads());
+                this.maxHeapMb = Math.max(this.maxHeapMb, this.metrics.heapUsedMb());
+                try {
+                    Thread.sleep(Duration.ofSeconds(1));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.jmunoz.load_test;
+
+import org.HdrHistogram.Histogram;
+
+// Resultado de una ejecución contra un target.
+//   latency: histograma en microsegundos, medido desde el instante en el que la petición DEBÍA salir.
+//   maxThreads / maxHeapMb: máximos observados en la aplicación (-1 si no hay Actuator).
+record Report(String target,
+              Scenario scenario,
+              int rate,
+              long sent,
+              long errors,
+              long elapsedMillis,
+              Histogram latency,
+              long maxInFlight,
+              double maxThreads,
+              double maxHeapMb) {
+
+    double throughput() {
+        return (this.sent - this.errors) * 1000.0 / Math.max(1, this.elapsedMillis);
+    }
+
+    double percentileMillis(double percentile) {
+        return this.latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return this.latency.getMaxValue() / 1000.0;
+    }
+}
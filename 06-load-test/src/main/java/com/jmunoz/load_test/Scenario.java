@@ -0,0 +1,37 @@
+package com.jmunoz.load_test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+// Las mismas peticiones que los tests de JMeter de 03-trip-advisor (jmeter/trip-plan.jmx y jmeter/trip-reserve.jmx).
+public enum Scenario {
+
+    // GET /trip/{airportCode}
+    PLAN {
+        @Override
+        HttpRequest request(String baseUrl) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/trip/LAS"))
+                    .timeout(TIMEOUT)
+                    .GET()
+                    .build();
+        }
+    },
+
+    // POST /trip/reserve
+    RESERVE {
+        @Override
+        HttpRequest request(String baseUrl) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/trip/reserve"))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("""
+                            {"departure":"ATL","arrival":"LAS","date":"2024-12-12"}"""))
+                    .build();
+        }
+    };
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    abstract HttpRequest request(String baseUrl);
+}
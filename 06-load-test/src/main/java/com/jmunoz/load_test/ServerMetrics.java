@@ -0,0 +1,46 @@
+package com.jmunoz.load_test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+// Lee métricas de la aplicación que estamos probando vía Actuator (/actuator/metrics).
+// Si la aplicación no tiene Actuator, devolvemos -1.
+class ServerMetrics {
+
+    private static final Pattern VALUE = Pattern.compile("\"value\"\\s*:\\s*([-0-9.Ee+]+)");
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    ServerMetrics(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    // Platform threads vivos (los virtual threads no aparecen en jvm.threads.live).
+    double liveThreads() {
+        return read("jvm.threads.live");
+    }
+
+    double heapUsedMb() {
+        var bytes = read("jvm.memory.used?tag=area:heap");
+        return bytes < 0 ? bytes : bytes / (1024 * 1024);
+    }
+
+    private double read(String metric) {
+        try {
+            var request = HttpRequest.newBuilder(URI.create(this.baseUrl + "/actuator/metrics/" + metric))
+                    .timeout(Duration.ofSeconds(2))
+                    .build();
+            var response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+            var matcher = VALUE.matcher(response.body());
+            return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}